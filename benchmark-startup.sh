@@ -0,0 +1,136 @@
+#!/bin/bash
+# Startup / memory / throughput benchmark: plain JVM vs JVM+AppCDS vs GraalVM native
+#
+# Usage: ./benchmark-startup.sh [--build] [runs] [requests] [concurrency]
+#   --build       (re)build all three images first
+#   runs          cold starts per image, median reported (default 5)
+#   requests      requests for the steady-state throughput phase (default 2000)
+#   concurrency   parallel clients for the throughput phase (default 16)
+
+set -e
+
+BUILD=false
+if [ "$1" == "--build" ]; then
+    BUILD=true
+    shift
+fi
+RUNS=${1:-5}
+REQUESTS=${2:-2000}
+CONCURRENCY=${3:-16}
+PORT=18080
+MEMORY_LIMIT=512m
+CONTAINER=odms-benchmark
+
+declare -A IMAGES=(
+    ["jvm"]="odms-app:latest|Dockerfile"
+    ["jvm-cds"]="odms-app:cds|Dockerfile.cds"
+    ["native"]="odms-app:native|Dockerfile.native"
+)
+ORDER=("jvm" "jvm-cds" "native")
+
+if ! docker info > /dev/null 2>&1; then
+    echo "❌ Docker is not running. Please start Docker and try again."
+    exit 1
+fi
+
+# odms-app:native always runs the native profile, which refuses to start without the calendar feed secret
+if [ -z "$APP_CALENDAR_TOKEN_SECRET" ]; then
+    echo "❌ APP_CALENDAR_TOKEN_SECRET is not set. It signs the faculty calendar feed URLs; set it to a"
+    echo "   long random value and keep it across restarts, e.g.:"
+    echo "   export APP_CALENDAR_TOKEN_SECRET=\$(openssl rand -base64 32)"
+    exit 1
+fi
+
+for variant in "${ORDER[@]}"; do
+    IFS='|' read -r image dockerfile <<< "${IMAGES[$variant]}"
+    if $BUILD || ! docker image inspect "$image" > /dev/null 2>&1; then
+        echo "📦 Building $image from $dockerfile..."
+        docker build -q -f "$dockerfile" -t "$image" . > /dev/null
+    fi
+done
+
+now_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+container_rss_mb() {
+    docker stats --no-stream --format '{{.MemUsage}}' "$CONTAINER" | awk '{print $1}'
+}
+
+median() {
+    sort -n | awk '{a[NR]=$1} END {print (NR % 2) ? a[(NR+1)/2] : int((a[NR/2] + a[NR/2+1]) / 2)}'
+}
+
+# Mix of a Thymeleaf-rendered page and a JPA-backed API call
+request_urls() {
+    for ((i = 0; i < $1; i++)); do
+        if (( i % 2 == 0 )); then
+            echo "http://localhost:$PORT/login"
+        else
+            echo "http://localhost:$PORT/api/students/search?query=RA21"
+        fi
+    done
+}
+
+start_container() {
+    docker rm -f "$CONTAINER" > /dev/null 2>&1 || true
+    docker run -d --rm --name "$CONTAINER" --memory "$MEMORY_LIMIT" -p "$PORT:80" \
+        -e APP_CALENDAR_TOKEN_SECRET="$APP_CALENDAR_TOKEN_SECRET" "$1" > /dev/null
+}
+
+wait_for_first_request() {
+    for ((i = 0; i < 1200; i++)); do
+        if [ "$(curl -s -o /dev/null -w '%{http_code}' "http://localhost:$PORT/login")" == "200" ]; then
+            return 0
+        fi
+        sleep 0.05
+    done
+    return 1
+}
+
+RESULTS=()
+for variant in "${ORDER[@]}"; do
+    IFS='|' read -r image dockerfile <<< "${IMAGES[$variant]}"
+    echo ""
+    echo "🚀 $variant ($image): $RUNS cold starts"
+
+    startup_times=()
+    rss_after_start=()
+    for ((run = 1; run <= RUNS; run++)); do
+        begin=$(now_ms)
+        start_container "$image"
+        if ! wait_for_first_request; then
+            echo "   ❌ run $run: no response within 60 s"
+            docker logs "$CONTAINER" 2>&1 | tail -20
+            docker rm -f "$CONTAINER" > /dev/null
+            exit 1
+        fi
+        elapsed=$(( $(now_ms) - begin ))
+        rss=$(container_rss_mb)
+        echo "   run $run: first request after ${elapsed} ms, memory ${rss}"
+        startup_times+=("$elapsed")
+        rss_after_start+=("$rss")
+        if (( run < RUNS )); then
+            docker rm -f "$CONTAINER" > /dev/null
+        fi
+    done
+
+    # Steady state on the last container: warm up, then measure
+    request_urls 500 | xargs -P "$CONCURRENCY" -n 1 curl -s -o /dev/null
+    begin=$(now_ms)
+    request_urls "$REQUESTS" | xargs -P "$CONCURRENCY" -n 1 curl -s -o /dev/null
+    elapsed=$(( $(now_ms) - begin ))
+    throughput=$(awk -v n="$REQUESTS" -v ms="$elapsed" 'BEGIN {printf "%.1f", n * 1000 / ms}')
+    rss_loaded=$(container_rss_mb)
+    docker rm -f "$CONTAINER" > /dev/null
+
+    median_startup=$(printf '%s\n' "${startup_times[@]}" | median)
+    RESULTS+=("| $variant | ${median_startup} | ${rss_after_start[0]} | ${rss_loaded} | ${throughput} |")
+done
+
+echo ""
+echo "Median of $RUNS cold starts, memory limit $MEMORY_LIMIT, $REQUESTS requests at concurrency $CONCURRENCY"
+echo ""
+echo "| Variant | Time to first request (ms) | Memory after start | Memory after load | Throughput (req/s) |"
+echo "|---------|----------------------------|--------------------|-------------------|--------------------|"
+printf '%s\n' "${RESULTS[@]}"
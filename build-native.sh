@@ -15,6 +15,14 @@ if ! docker info > /dev/null 2>&1; then
     exit 1
 fi
 
+# The smoke run below uses the native profile, which refuses to start without the calendar feed secret
+if [ -z "$APP_CALENDAR_TOKEN_SECRET" ]; then
+    echo "❌ APP_CALENDAR_TOKEN_SECRET is not set. It signs the faculty calendar feed URLs; set it to a"
+    echo "   long random value and keep it across restarts, e.g.:"
+    echo "   export APP_CALENDAR_TOKEN_SECRET=\$(openssl rand -base64 32)"
+    exit 1
+fi
+
 echo "📦 Building native image (this will take 5-10 minutes)..."
 echo "   This is a one-time build. Runtime startup will be 2-5 seconds."
 echo ""
@@ -47,7 +55,7 @@ echo "📊 Image size: ${IMAGE_SIZE}"
 echo ""
 
 echo "🚀 Testing native image startup time..."
-docker run -d --rm -p 8091:80 -e SPRING_PROFILES_ACTIVE=native --name odms-native-test odms-app:native > /dev/null
+docker run -d --rm -p 8091:80 -e SPRING_PROFILES_ACTIVE=native -e APP_CALENDAR_TOKEN_SECRET="$APP_CALENDAR_TOKEN_SECRET" --name odms-native-test odms-app:native > /dev/null
 
 STARTUP_START=$(date +%s)
 for i in {1..30}; do
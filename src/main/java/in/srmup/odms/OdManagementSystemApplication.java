@@ -2,14 +2,20 @@ package in.srmup.odms;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableScheduling
 public class OdManagementSystemApplication {
 
+    // Startup steps kept for /admin/api/startup; lazy beans keep adding steps after startup
+    private static final int STARTUP_STEP_CAPACITY = 10_000;
+
     public static void main(String[] args) {
-        SpringApplication.run(OdManagementSystemApplication.class, args);
+        SpringApplication application = new SpringApplication(OdManagementSystemApplication.class);
+        application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEP_CAPACITY));
+        application.run(args);
     }
 
 }
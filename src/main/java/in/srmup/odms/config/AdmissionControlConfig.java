@@ -0,0 +1,55 @@
+package in.srmup.odms.config;
+
+import in.srmup.odms.config.admission.AdaptiveConcurrencyLimiter;
+import in.srmup.odms.config.admission.AdmissionControlFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+/**
+ * Per-endpoint-class concurrency budgets (see {@link AdmissionControlFilter}). Each class reads
+ * {@code app.admission.<name>.initial-limit/min-limit/max-limit}; the defaults keep the
+ * non-approver classes together well under Tomcat's 200 threads, so approvers always find one.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionControlConfig {
+
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter(Environment environment,
+                                                                                 MeterRegistry meterRegistry) {
+        AdmissionControlFilter filter = new AdmissionControlFilter(
+                environment.getProperty("app.admission.retry-after-seconds", Long.class, 2L));
+        double tolerance = environment.getProperty("app.admission.latency-tolerance", Double.class, 2.0);
+        double backoffRatio = environment.getProperty("app.admission.backoff-ratio", Double.class, 0.9);
+
+        filter.addBudget("/api/students/**", null,
+                limiter(environment, "student-search", 20, 4, 60, tolerance, backoffRatio), meterRegistry);
+        filter.addBudget("/event-requests/submit", "POST",
+                limiter(environment, "submit", 10, 2, 40, tolerance, backoffRatio), meterRegistry);
+        filter.addBudget("/generate-otp", "POST",
+                limiter(environment, "otp", 5, 1, 20, tolerance, backoffRatio), meterRegistry);
+        filter.addBudget("/approver/**", null,
+                limiter(environment, "approver", 20, 10, 100, tolerance, backoffRatio), meterRegistry);
+
+        FilterRegistrationBean<AdmissionControlFilter> registration = new FilterRegistrationBean<>(filter);
+        // Ahead of Spring Security, so a refused request costs no session or security work
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        registration.addUrlPatterns("/*");
+        return registration;
+    }
+
+    private static AdaptiveConcurrencyLimiter limiter(Environment environment, String name, int initialLimit,
+                                                      int minLimit, int maxLimit, double tolerance, double backoffRatio) {
+        String prefix = "app.admission." + name + ".";
+        return new AdaptiveConcurrencyLimiter(name,
+                environment.getProperty(prefix + "initial-limit", Integer.class, initialLimit),
+                environment.getProperty(prefix + "min-limit", Integer.class, minLimit),
+                environment.getProperty(prefix + "max-limit", Integer.class, maxLimit),
+                tolerance, backoffRatio);
+    }
+}
@@ -26,6 +26,7 @@ public class NativeRuntimeHintsConfig {
                 FacultyMaster.class,
                 EventRequest.class,
                 ApprovalHistory.class,
+                ApprovalHistoryArchive.class,
                 Participant.class
             };
             
@@ -42,6 +43,7 @@ public class NativeRuntimeHintsConfig {
                 .registerPattern("templates/*.html")
                 .registerPattern("static/**")
                 .registerPattern("application*.properties")
+                .registerPattern("ehcache.xml")
                 .registerPattern("META-INF/resources/**");
             
             // Register H2 database resources
@@ -1,5 +1,7 @@
 package in.srmup.odms.config;
 
+import in.srmup.odms.config.security.WarmUpAuthenticationFilter;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -7,6 +9,7 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.AnonymousAuthenticationFilter;
 
 @Configuration
 @EnableWebSecurity
@@ -17,9 +20,18 @@ public class SecurityConfig {
         return new BCryptPasswordEncoder();
     }
 
+    // Runs inside the security chain only, not as a servlet filter of its own
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public FilterRegistrationBean<WarmUpAuthenticationFilter> warmUpAuthenticationFilterRegistration(WarmUpAuthenticationFilter filter) {
+        FilterRegistrationBean<WarmUpAuthenticationFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    @Bean
+    public SecurityFilterChain filterChain(HttpSecurity http, WarmUpAuthenticationFilter warmUpAuthenticationFilter) throws Exception {
         http
+                .addFilterBefore(warmUpAuthenticationFilter, AnonymousAuthenticationFilter.class)
                 .authorizeHttpRequests(authz -> authz
                         // Allow access to H2 console, dev-login and static resources
                         .requestMatchers("/h2-console/**", "/dev-login", "/login", "/generate-otp", "/login-with-otp", "/css/**", "/js/**", "/images/**").permitAll()
@@ -0,0 +1,89 @@
+package in.srmup.odms.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import in.srmup.odms.config.sharding.ShardConnectionProvider;
+import in.srmup.odms.config.sharding.ShardRoutingDataSource;
+import in.srmup.odms.config.sharding.ShardRoutingFilter;
+import in.srmup.odms.config.sharding.ShardSchemaInitializer;
+import in.srmup.odms.config.sharding.ShardTenantResolver;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Department-sharded storage for multi-campus deployments. Each entry of
+ * {@code app.sharding.shards[i]} (name, url, username, password) is a database with its own pool;
+ * the first one is the default shard and holds the users. Hibernate opens every session on one
+ * shard as its tenant (see {@code in.srmup.odms.service.ShardRouter} for how the shard is chosen).
+ * Off unless {@code app.sharding.enabled=true}; then {@code spring.datasource.*} is not used.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+
+    @Bean
+    @Primary
+    public ShardRoutingDataSource dataSource(Environment environment) {
+        List<DataSourceProperties> shards = Binder.get(environment)
+                .bind("app.sharding.shards", Bindable.listOf(DataSourceProperties.class))
+                .orElseThrow(() -> new IllegalStateException("app.sharding.enabled is set but no app.sharding.shards are configured"));
+        if (shards.size() > ShardSchemaInitializer.MAX_SHARDS) {
+            throw new IllegalStateException("app.sharding.shards lists " + shards.size() + " shards; at most "
+                    + ShardSchemaInitializer.MAX_SHARDS + " fit in the per-shard ID ranges");
+        }
+        int poolSize = environment.getProperty("app.sharding.pool-size", Integer.class, 10);
+
+        LinkedHashMap<String, DataSource> pools = new LinkedHashMap<>();
+        for (DataSourceProperties shard : shards) {
+            if (shard.getName() == null || shard.getName().isBlank() || shard.getUrl() == null) {
+                throw new IllegalStateException("Every entry of app.sharding.shards needs a name and a url");
+            }
+            HikariDataSource pool = shard.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+            pool.setPoolName("shard-" + shard.getName());
+            pool.setMaximumPoolSize(poolSize);
+            if (pools.put(shard.getName(), pool) != null) {
+                throw new IllegalStateException("Duplicate shard name: " + shard.getName());
+            }
+        }
+        System.out.println("Sharding enabled: " + pools.keySet() + ", default shard " + pools.keySet().iterator().next());
+        return new ShardRoutingDataSource(pools);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer shardTenancy(ShardRoutingDataSource dataSource) {
+        return properties -> {
+            properties.put(AvailableSettings.MULTI_TENANT_CONNECTION_PROVIDER, new ShardConnectionProvider(dataSource));
+            properties.put(AvailableSettings.MULTI_TENANT_IDENTIFIER_RESOLVER, new ShardTenantResolver(dataSource.getDefaultShard()));
+        };
+    }
+
+    @Bean
+    public ShardSchemaInitializer shardSchemaInitializer(EntityManagerFactory entityManagerFactory,
+                                                         ShardRoutingDataSource dataSource, Environment environment) {
+        return new ShardSchemaInitializer(entityManagerFactory, dataSource,
+                environment.getProperty("spring.jpa.hibernate.ddl-auto"));
+    }
+
+    @Bean
+    public FilterRegistrationBean<ShardRoutingFilter> shardRoutingFilter() {
+        FilterRegistrationBean<ShardRoutingFilter> registration = new FilterRegistrationBean<>(new ShardRoutingFilter());
+        // Right after admission control, so a refused request costs no session lookup
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        registration.addUrlPatterns("/*");
+        return registration;
+    }
+}
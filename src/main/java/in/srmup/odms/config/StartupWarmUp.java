@@ -0,0 +1,188 @@
+package in.srmup.odms.config;
+
+import in.srmup.odms.config.security.WarmUpAuthenticationFilter;
+import in.srmup.odms.model.RequestStatus;
+import in.srmup.odms.model.StudentMaster;
+import in.srmup.odms.repository.*;
+import in.srmup.odms.service.RequestSearchIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Touches the hot paths before the app reports ready. Application runners
+ * complete before Spring Boot publishes ReadinessState.ACCEPTING_TRAFFIC, so
+ * /actuator/health/readiness stays OUT_OF_SERVICE until this finishes and the
+ * first real user no longer pays for Hibernate bootstrap, repository proxies,
+ * DispatcherServlet init and Thymeleaf template parsing.
+ * <p>
+ * Each entry of {@code app.warmup.paths} is a path, or {@code ROLE_X@path} to request it as a
+ * user with that role (see {@link WarmUpAuthenticationFilter}). Only 2xx answers count as
+ * rendered; redirects aren't followed, since a login redirect renders nothing.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class StartupWarmUp implements ApplicationRunner {
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private ApplicationStartup applicationStartup;
+
+    @Autowired
+    private StudentMasterRepository studentMasterRepository;
+
+    @Autowired
+    private FacultyMasterRepository facultyMasterRepository;
+
+    @Autowired
+    private EventRequestRepository eventRequestRepository;
+
+    @Autowired
+    private ApprovalHistoryRepository approvalHistoryRepository;
+
+    @Autowired
+    private ParticipantRepository participantRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RequestSearchIndex requestSearchIndex;
+
+    @Autowired
+    private WarmUpAuthenticationFilter warmUpAuthenticationFilter;
+
+    @Value("${app.warmup.enabled:true}")
+    private boolean enabled;
+
+    // Matches the StudentMaster heap size in ehcache.xml; preloading more would only evict
+    @Value("${app.warmup.student-preload-limit:20000}")
+    private int studentPreloadLimit;
+
+    @Value("${app.warmup.paths:/login,/,ROLE_STUDENT_ORGANIZER@/event-requests/new,ROLE_STUDENT_ORGANIZER@/event-requests/my-requests,"
+            + "ROLE_FACULTY@/faculty/dashboard,ROLE_EVENT_COORDINATOR@/approver/dashboard,ROLE_ADMIN@/admin/dashboard,"
+            + "/api/students/search?query=RA}")
+    private List<String> warmUpPaths;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+
+        StartupStep repositories = applicationStartup.start("odms.warmup.repositories");
+        warmUpRepositories();
+        repositories.end();
+
+        StartupStep masterData = applicationStartup.start("odms.warmup.master-data");
+        int students = preloadMasterData();
+        masterData.tag("students", String.valueOf(students));
+        masterData.end();
+
+        StartupStep searchIndex = applicationStartup.start("odms.warmup.search-index");
+        int indexed = requestSearchIndex.rebuild();
+        searchIndex.tag("requests", String.valueOf(indexed));
+        searchIndex.end();
+
+        StartupStep http = applicationStartup.start("odms.warmup.http");
+        int pages = warmUpHttp();
+        http.tag("paths", String.valueOf(pages));
+        http.end();
+
+        System.out.println("Warm-up finished in " + (System.currentTimeMillis() - start) + " ms ("
+                + students + " students cached, " + indexed + " requests indexed, " + pages + " pages rendered)");
+    }
+
+    // Builds the proxies and parses each query once; the lookups use keys that match nothing
+    private void warmUpRepositories() {
+        userRepository.findByEmail("warmup@invalid");
+        facultyMasterRepository.findByFacultyEmail("warmup@invalid");
+        facultyMasterRepository.findByBranchAndSection("-", "-");
+        eventRequestRepository.findByStatusAndApprovedDateAndIsHiddenFalse(RequestStatus.APPROVED, LocalDate.of(1970, 1, 1));
+        approvalHistoryRepository.findByEventRequestIdOrderByActionTimestampAsc(-1L);
+        participantRepository.findOverlappingOds(List.of("-"), List.of(RequestStatus.APPROVED),
+                LocalDate.now(), LocalDate.now(), null);
+        eventRequestRepository.count();
+    }
+
+    private int preloadMasterData() {
+        facultyMasterRepository.findAll();
+
+        int loaded = 0;
+        int pageSize = 1000;
+        for (int page = 0; loaded < studentPreloadLimit; page++) {
+            Page<StudentMaster> students = studentMasterRepository.findAll(PageRequest.of(page, pageSize));
+            loaded += students.getNumberOfElements();
+            if (!students.hasNext()) {
+                break;
+            }
+        }
+        return loaded;
+    }
+
+    // Only possible with a real server (not in MOCK-environment tests)
+    private int warmUpHttp() {
+        if (!(applicationContext instanceof WebServerApplicationContext webContext) || webContext.getWebServer() == null) {
+            return 0;
+        }
+        int port = webContext.getWebServer().getPort();
+        if (port <= 0) {
+            return 0;
+        }
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+        String token = warmUpAuthenticationFilter.open();
+        int rendered = 0;
+        try {
+            for (String entry : warmUpPaths) {
+                int at = entry.indexOf("@/");
+                String role = at > 0 ? entry.substring(0, at).trim() : null;
+                String path = at > 0 ? entry.substring(at + 1).trim() : entry.trim();
+                try {
+                    HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                            .timeout(Duration.ofSeconds(30))
+                            .GET();
+                    if (role != null) {
+                        request.header(WarmUpAuthenticationFilter.TOKEN_HEADER, token)
+                                .header(WarmUpAuthenticationFilter.ROLE_HEADER, role);
+                    }
+                    HttpResponse<Void> response = client.send(request.build(), HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() >= 200 && response.statusCode() < 300) {
+                        rendered++;
+                    } else {
+                        System.err.println("Warm-up request to " + entry + " was not rendered: HTTP " + response.statusCode());
+                    }
+                } catch (Exception e) {
+                    System.err.println("Warm-up request to " + entry + " failed: " + e.getMessage());
+                }
+            }
+        } finally {
+            warmUpAuthenticationFilter.close();
+        }
+        return rendered;
+    }
+}
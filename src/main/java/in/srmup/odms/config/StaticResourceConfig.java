@@ -0,0 +1,44 @@
+package in.srmup.odms.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.ResourceUrlEncodingFilter;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves static assets under content-hashed URLs with long-lived, immutable caching.
+ * <p>
+ * Templates keep linking to {@code @{/css/modern-style.css}}; the {@link ResourceUrlEncodingFilter}
+ * rewrites those links to {@code /css/modern-style-<md5>.css}, so a changed file always gets a new URL
+ * and browsers never need to revalidate. The {@code .gz}/{@code .br} variants written at build time
+ * (see the precompress step in pom.xml) are picked by {@link EncodedResourceResolver} based on
+ * {@code Accept-Encoding}, so nothing is compressed at request time.
+ */
+@Configuration
+public class StaticResourceConfig implements WebMvcConfigurer {
+
+    private static final long ASSET_MAX_AGE_DAYS = 365;
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        for (String dir : new String[]{"css", "js", "images"}) {
+            registry.addResourceHandler("/" + dir + "/**")
+                    .addResourceLocations("classpath:/static/" + dir + "/")
+                    .setCacheControl(CacheControl.maxAge(ASSET_MAX_AGE_DAYS, TimeUnit.DAYS).cachePublic().immutable())
+                    .resourceChain(true)
+                    .addResolver(new EncodedResourceResolver())
+                    .addResolver(new VersionResourceResolver().addContentVersionStrategy("/**"));
+        }
+    }
+
+    @Bean
+    public ResourceUrlEncodingFilter resourceUrlEncodingFilter() {
+        return new ResourceUrlEncodingFilter();
+    }
+}
@@ -0,0 +1,123 @@
+package in.srmup.odms.config.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A concurrency limit that adapts to observed latency (AIMD with a gradient-style signal).
+ * Completed requests are taken in windows of {@value #WINDOW_SAMPLES}; each window's average
+ * latency is compared with a long-run average of earlier windows. While it stays within
+ * {@code tolerance} times the long-run average and the limit is actually in use, the limit
+ * grows by about one per limit's worth of requests; when a window comes in slower than that,
+ * or had a failed request, the limit is cut by {@code backoffRatio}. Averaging over a window
+ * keeps endpoint classes that mix fast and slow requests (cache hits and misses, detail pages
+ * and dashboards) steady, where comparing single requests with the fastest one ever seen
+ * would read every slow page as congestion. Requests beyond the current limit are refused
+ * outright instead of queueing on Tomcat threads or the connection pool.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    // Requests per short window
+    static final int WINDOW_SAMPLES = 50;
+    // Weight of each new window in the long-run average (about the last 20 windows)
+    private static final double LONG_RUN_WEIGHT = 0.05;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double backoffRatio;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+    private double longRunNanos = Double.NaN;
+    private boolean congested;
+    // The window being filled
+    private long windowTotalNanos;
+    private int windowSamples;
+    private boolean windowFailed;
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit,
+                                      double tolerance, double backoffRatio) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Invalid concurrency limits for " + name + ": min " + minLimit + ", max " + maxLimit);
+        }
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.max(minLimit, Math.min(initialLimit, maxLimit));
+    }
+
+    /**
+     * Takes a slot if one is free under the current limit.
+     *
+     * @return false if the request must be refused
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns the slot taken by {@link #tryAcquire()} and feeds the request's outcome into the limit.
+     *
+     * @param latencyNanos how long the request held the slot
+     * @param failed       true if the request ended in a server error
+     */
+    public void release(long latencyNanos, boolean failed) {
+        int inFlightAtCompletion = inFlight.getAndDecrement();
+        onSample(latencyNanos, failed, inFlightAtCompletion);
+    }
+
+    private synchronized void onSample(long latencyNanos, boolean failed, int inFlightAtCompletion) {
+        windowTotalNanos += latencyNanos;
+        windowFailed |= failed;
+        if (++windowSamples == WINDOW_SAMPLES) {
+            closeWindow();
+        }
+
+        double current = limit;
+        if (!congested && !failed && inFlightAtCompletion * 2 >= current) {
+            // Only grow while the limit is the constraint, otherwise it would drift up unused
+            limit = Math.min(maxLimit, current + 1.0 / current);
+        }
+    }
+
+    // Caller holds the lock
+    private void closeWindow() {
+        double windowNanos = (double) windowTotalNanos / windowSamples;
+        if (Double.isNaN(longRunNanos)) {
+            longRunNanos = windowNanos;
+            congested = windowFailed;
+        } else {
+            congested = windowFailed || windowNanos > longRunNanos * tolerance;
+            longRunNanos += (windowNanos - longRunNanos) * LONG_RUN_WEIGHT;
+        }
+        if (congested) {
+            limit = Math.max(minLimit, limit * backoffRatio);
+        }
+        windowTotalNanos = 0;
+        windowSamples = 0;
+        windowFailed = false;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
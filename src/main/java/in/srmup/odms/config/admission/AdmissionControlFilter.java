@@ -0,0 +1,117 @@
+package in.srmup.odms.config.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Load shedding in front of everything else (including Spring Security). Each endpoint class
+ * has its own {@link AdaptiveConcurrencyLimiter}, so a registration-day spike on student search,
+ * submit or OTP can only use up its own budget and approver pages keep their threads and
+ * connections. Requests over the limit get an immediate 503 with {@code Retry-After};
+ * paths outside every class pass through unlimited.
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final List<Budget> budgets = new ArrayList<>();
+    private final Map<String, Counter> rejections = new HashMap<>();
+    private final long retryAfterSeconds;
+
+    public AdmissionControlFilter(long retryAfterSeconds) {
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Adds an endpoint class; the first class whose pattern matches a request applies.
+     */
+    public void addBudget(String pattern, String method, AdaptiveConcurrencyLimiter limiter, MeterRegistry meterRegistry) {
+        budgets.add(new Budget(pattern, method, limiter));
+        Gauge.builder("odms.admission.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .tag("endpoint", limiter.getName())
+                .description("Current adaptive concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder("odms.admission.in.flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .tag("endpoint", limiter.getName())
+                .register(meterRegistry);
+        rejections.put(limiter.getName(), Counter.builder("odms.admission.rejected")
+                .tag("endpoint", limiter.getName())
+                .description("Requests refused with 503 because the endpoint was over its concurrency limit")
+                .register(meterRegistry));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        AdaptiveConcurrencyLimiter limiter = limiterFor(request);
+        if (limiter == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (!limiter.tryAcquire()) {
+            rejections.get(limiter.getName()).increment();
+            reject(request, response);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = response.getStatus() >= 500;
+        } finally {
+            limiter.release(System.nanoTime() - start, failed);
+        }
+    }
+
+    private AdaptiveConcurrencyLimiter limiterFor(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (Budget budget : budgets) {
+            if ((budget.method == null || budget.method.equalsIgnoreCase(request.getMethod()))
+                    && pathMatcher.match(budget.pattern, path)) {
+                return budget.limiter;
+            }
+        }
+        return null;
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        response.setHeader("Cache-Control", "no-store");
+        String accept = request.getHeader("Accept");
+        if (request.getRequestURI().contains("/api/") || (accept != null && accept.contains(MediaType.APPLICATION_JSON_VALUE))) {
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"The server is busy, please retry in " + retryAfterSeconds + " s.\"}");
+        } else {
+            response.setContentType("text/plain;charset=UTF-8");
+            response.getWriter().write("The server is busy, please try again in a few seconds.");
+        }
+    }
+
+    private static final class Budget {
+        private final String pattern;
+        private final String method;
+        private final AdaptiveConcurrencyLimiter limiter;
+
+        Budget(String pattern, String method, AdaptiveConcurrencyLimiter limiter) {
+            this.pattern = pattern;
+            this.method = method;
+            this.limiter = limiter;
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package in.srmup.odms.config.security;
 
+import in.srmup.odms.config.sharding.ShardRoutingFilter;
+import in.srmup.odms.service.ShardRouter;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
@@ -12,6 +15,9 @@ import java.io.IOException;
 @Component
 public class CustomAuthSuccessHandler implements AuthenticationSuccessHandler {
 
+    @Autowired
+    private ShardRouter shardRouter;
+
     @Override
     public void onAuthenticationSuccess(HttpServletRequest request, HttpServletResponse response,
                                         Authentication authentication) throws IOException {
@@ -19,6 +25,11 @@ public class CustomAuthSuccessHandler implements AuthenticationSuccessHandler {
 
         String redirectUrl = "/"; // Default redirect URL
 
+        // Every later request of this session works on the user's campus shard
+        if (shardRouter.isSharded()) {
+            request.getSession().setAttribute(ShardRoutingFilter.SESSION_ATTRIBUTE, shardRouter.shardForUser(authentication.getName()));
+        }
+
         // Get the role of the logged-in user
         String userRole = authentication.getAuthorities().stream()
                 .map(GrantedAuthority::getAuthority)
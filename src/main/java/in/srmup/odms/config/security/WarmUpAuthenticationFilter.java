@@ -0,0 +1,75 @@
+package in.srmup.odms.config.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Lets the startup warm-up render pages that need a logged-in user. While {@link #open()} is in
+ * effect, a loopback request carrying the one-time token in {@value #TOKEN_HEADER} is treated
+ * as {@value #USERNAME} with the role in {@value #ROLE_HEADER}, for that request only (nothing
+ * goes into a session). {@link #close()} drops the token once warm-up is done, before the app
+ * reports ready, after which the filter lets every request through untouched.
+ */
+@Component
+public class WarmUpAuthenticationFilter extends OncePerRequestFilter {
+
+    public static final String TOKEN_HEADER = "X-Warmup-Token";
+    public static final String ROLE_HEADER = "X-Warmup-Role";
+    public static final String USERNAME = "warmup@invalid";
+
+    private volatile String token;
+
+    /**
+     * Issues the token for warm-up requests.
+     */
+    public String open() {
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        token = Base64.getUrlEncoder().withoutPadding().encodeToString(secret);
+        return token;
+    }
+
+    public void close() {
+        token = null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String expected = token;
+        String presented = request.getHeader(TOKEN_HEADER);
+        String role = request.getHeader(ROLE_HEADER);
+        if (expected != null && presented != null && role != null && role.startsWith("ROLE_")
+                && InetAddress.getByName(request.getRemoteAddr()).isLoopbackAddress()
+                && MessageDigest.isEqual(expected.getBytes(StandardCharsets.US_ASCII), presented.getBytes(StandardCharsets.US_ASCII))) {
+            UserDetails principal = User.builder()
+                    .username(USERNAME)
+                    .password("")
+                    .authorities(role)
+                    .build();
+            SecurityContext context = SecurityContextHolder.createEmptyContext();
+            context.setAuthentication(new UsernamePasswordAuthenticationToken(principal, null,
+                    List.of(new SimpleGrantedAuthority(role))));
+            SecurityContextHolder.setContext(context);
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,29 @@
+package in.srmup.odms.config.sharding;
+
+import org.hibernate.engine.jdbc.connections.spi.AbstractDataSourceBasedMultiTenantConnectionProviderImpl;
+
+import javax.sql.DataSource;
+
+/**
+ * Hands Hibernate the pool of the session's shard (its tenant identifier). Connections taken
+ * outside a session, such as schema export, follow {@link ShardContext} through the routing
+ * data source.
+ */
+public class ShardConnectionProvider extends AbstractDataSourceBasedMultiTenantConnectionProviderImpl<String> {
+
+    private final ShardRoutingDataSource dataSource;
+
+    public ShardConnectionProvider(ShardRoutingDataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    protected DataSource selectAnyDataSource() {
+        return dataSource;
+    }
+
+    @Override
+    protected DataSource selectDataSource(String shard) {
+        return dataSource.getShard(shard);
+    }
+}
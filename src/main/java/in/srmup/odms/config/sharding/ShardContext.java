@@ -0,0 +1,47 @@
+package in.srmup.odms.config.sharding;
+
+import java.util.function.Supplier;
+
+/**
+ * The shard the current thread works on. Read when a Hibernate session is opened (by
+ * {@link ShardTenantResolver}) and when a connection is taken outside a session (by
+ * {@link ShardRoutingDataSource}); unset means the default shard.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    // For ShardRoutingFilter, which cannot pass the filter chain (and its checked exceptions) as a Supplier
+    static String swap(String shard) {
+        String previous = CURRENT.get();
+        CURRENT.set(shard);
+        return previous;
+    }
+
+    static void restore(String previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * Runs {@code action} with {@code shard} as the current shard, restoring the previous one after.
+     */
+    public static <T> T callIn(String shard, Supplier<T> action) {
+        String previous = swap(shard);
+        try {
+            return action.get();
+        } finally {
+            restore(previous);
+        }
+    }
+}
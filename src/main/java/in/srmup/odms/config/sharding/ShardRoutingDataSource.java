@@ -0,0 +1,52 @@
+package in.srmup.odms.config.sharding;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.*;
+
+/**
+ * One connection pool per shard, picked by {@link ShardContext}. The first shard is the
+ * default: it serves threads with no shard set and holds the login directory (users).
+ * Shard names are kept in configuration order, which also fixes each shard's ID range.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final Map<String, DataSource> shards;
+    private final String defaultShard;
+
+    public ShardRoutingDataSource(LinkedHashMap<String, DataSource> shards) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard must be configured");
+        }
+        this.shards = Collections.unmodifiableMap(new LinkedHashMap<>(shards));
+        this.defaultShard = shards.keySet().iterator().next();
+        setTargetDataSources(new HashMap<>(shards));
+        setDefaultTargetDataSource(shards.get(defaultShard));
+        // A shard name that is not configured is a bug, not a reason to write to the default shard
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String shard = ShardContext.current();
+        return shard != null ? shard : defaultShard;
+    }
+
+    public List<String> getShardNames() {
+        return List.copyOf(shards.keySet());
+    }
+
+    public String getDefaultShard() {
+        return defaultShard;
+    }
+
+    public DataSource getShard(String name) {
+        DataSource shard = shards.get(name);
+        if (shard == null) {
+            throw new IllegalArgumentException("Unknown shard: " + name);
+        }
+        return shard;
+    }
+}
@@ -0,0 +1,38 @@
+package in.srmup.odms.config.sharding;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Puts each request on the shard remembered in the user's session at login (their
+ * department's campus, or the one an admin switched to). Runs before the open-in-view session
+ * is opened, so everything the request reads comes from that shard. Requests without one
+ * stay on the default shard.
+ */
+public class ShardRoutingFilter extends OncePerRequestFilter {
+
+    public static final String SESSION_ATTRIBUTE = "odms.shard";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        HttpSession session = request.getSession(false);
+        Object shard = session == null ? null : session.getAttribute(SESSION_ATTRIBUTE);
+        if (!(shard instanceof String)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        String previous = ShardContext.swap((String) shard);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ShardContext.restore(previous);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package in.srmup.odms.config.sharding;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * With {@code ddl-auto=create}/{@code create-drop}, Hibernate only builds the schema on the
+ * default shard; this exports it to every other shard too. Each shard's sequences are then
+ * moved to their own ID range (shard N starts at N × {@link #ID_RANGE_PER_SHARD}), so request,
+ * participant and history IDs stay unique across shards and in-memory caches keyed by ID
+ * never mix them up. Shards of a migrated database get the same ranges from
+ * {@code db/migration/shard-id-ranges.sql}.
+ */
+public class ShardSchemaInitializer implements InitializingBean {
+
+    // Keeps every request ID within an int for RequestSearchIndex
+    public static final long ID_RANGE_PER_SHARD = 100_000_000L;
+    // Shards whose whole ID range fits in an int
+    public static final int MAX_SHARDS = (int) (Integer.MAX_VALUE / ID_RANGE_PER_SHARD);
+    // The pooled optimizer reads a sequence value as the last ID of a block of this many
+    private static final int ALLOCATION_SIZE = 50;
+    private static final List<String> SEQUENCES = List.of("event_request_seq", "participant_seq", "approval_history_seq", "users_seq");
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ShardRoutingDataSource dataSource;
+    private final String ddlAuto;
+
+    public ShardSchemaInitializer(EntityManagerFactory entityManagerFactory, ShardRoutingDataSource dataSource, String ddlAuto) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.dataSource = dataSource;
+        this.ddlAuto = ddlAuto;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (ddlAuto == null || !ddlAuto.startsWith("create")) {
+            return;
+        }
+        List<String> shards = dataSource.getShardNames();
+        for (int i = 1; i < shards.size(); i++) {
+            String shard = shards.get(i);
+            ShardContext.callIn(shard, () -> {
+                entityManagerFactory.unwrap(SessionFactory.class).getSchemaManager().exportMappedObjects(true);
+                return null;
+            });
+            JdbcTemplate jdbc = new JdbcTemplate(dataSource.getShard(shard));
+            for (String sequence : SEQUENCES) {
+                jdbc.execute("alter sequence " + sequence + " restart with " + (i * ID_RANGE_PER_SHARD + ALLOCATION_SIZE));
+            }
+            System.out.println("Created the schema of shard " + shard + " (IDs from " + (i * ID_RANGE_PER_SHARD + 1) + ")");
+        }
+    }
+}
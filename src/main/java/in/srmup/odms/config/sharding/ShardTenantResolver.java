@@ -0,0 +1,27 @@
+package in.srmup.odms.config.sharding;
+
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+
+/**
+ * Opens each Hibernate session on the current shard. Because the shard is the session's tenant,
+ * second-level and query cache entries are kept apart per shard as well.
+ */
+public class ShardTenantResolver implements CurrentTenantIdentifierResolver<String> {
+
+    private final String defaultShard;
+
+    public ShardTenantResolver(String defaultShard) {
+        this.defaultShard = defaultShard;
+    }
+
+    @Override
+    public String resolveCurrentTenantIdentifier() {
+        String shard = ShardContext.current();
+        return shard != null ? shard : defaultShard;
+    }
+
+    @Override
+    public boolean validateExistingCurrentSessions() {
+        return false;
+    }
+}
@@ -1,7 +1,11 @@
 package in.srmup.odms.controller;
 
-import in.srmup.odms.model.User;
+import in.srmup.odms.config.sharding.ShardRoutingFilter;
+import in.srmup.odms.model.RequestStatus;
 import in.srmup.odms.service.AdminService;
+import in.srmup.odms.service.ShardRouter;
+import in.srmup.odms.service.SlaMetricsService;
+import jakarta.servlet.http.HttpSession;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -9,23 +13,43 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Controller
 @RequestMapping("/admin")
 public class AdminController {
 
+    // Per-row role selects of the bulk form are named "role-<userId>"
+    private static final String ROLE_FIELD_PREFIX = "role-";
+
     @Autowired
     private AdminService adminService;
 
+    @Autowired
+    private SlaMetricsService slaMetricsService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
     @GetMapping("/dashboard")
-    public String showAdminDashboard(Model model) {
+    public String showAdminDashboard(@RequestParam(value = "emailPrefix", required = false) String emailPrefix,
+                                     @RequestParam(value = "role", required = false) String role,
+                                     @RequestParam(value = "afterEmail", required = false) String afterEmail,
+                                     Model model) {
         try {
-            List<User> allUsers = adminService.findAllUsers();
-            model.addAttribute("users", allUsers);
+            // The user directory is on the default shard, whichever campus the admin is working on
+            model.addAttribute("userPage", shardRouter.inShard(shardRouter.getDefaultShard(),
+                    () -> adminService.findUsers(emailPrefix, role, afterEmail)));
+            model.addAttribute("sharded", shardRouter.isSharded());
+            model.addAttribute("emailPrefix", emailPrefix);
+            model.addAttribute("roleFilter", role);
+            model.addAttribute("afterEmail", afterEmail);
             // This list will populate the dropdowns in the form
-            model.addAttribute("allRoles", List.of("ROLE_ADMIN", "ROLE_STUDENT_ORGANIZER", "ROLE_EVENT_COORDINATOR", "ROLE_STUDENT_WELFARE", "ROLE_HOD", "ROLE_FACULTY"));
+            model.addAttribute("allRoles", AdminService.ROLES);
             return "admin-dashboard"; // The name of our new HTML file
         } catch (Exception e) {
             System.err.println("Error in AdminController.showAdminDashboard: " + e.getMessage());
@@ -37,7 +61,87 @@ public class AdminController {
 
     @PostMapping("/update-role")
     public String updateUserRole(@RequestParam("userId") Long userId, @RequestParam("role") String role) {
-        adminService.updateUserRole(userId, role);
+        shardRouter.inShard(shardRouter.getDefaultShard(), () -> {
+            adminService.updateUserRole(userId, role);
+            return null;
+        });
+        return "redirect:/admin/dashboard";
+    }
+
+    /**
+     * Saves every role on the current page in one transaction. Rows ticked in {@code selected}
+     * get {@code bulkRole} instead of their own dropdown value when one is chosen.
+     */
+    @PostMapping("/users/roles")
+    public String updateUserRoles(@RequestParam Map<String, String> params,
+                                  @RequestParam(value = "selected", required = false) List<Long> selected,
+                                  @RequestParam(value = "bulkRole", required = false) String bulkRole,
+                                  RedirectAttributes redirectAttributes) {
+        Map<Long, String> rolesByUserId = new HashMap<>();
+        try {
+            params.forEach((name, value) -> {
+                if (name.startsWith(ROLE_FIELD_PREFIX)) {
+                    rolesByUserId.put(Long.valueOf(name.substring(ROLE_FIELD_PREFIX.length())), value);
+                }
+            });
+            if (bulkRole != null && !bulkRole.isBlank() && selected != null) {
+                selected.forEach(userId -> rolesByUserId.put(userId, bulkRole));
+            }
+            int updated = shardRouter.inShard(shardRouter.getDefaultShard(), () -> adminService.updateUserRoles(rolesByUserId));
+            redirectAttributes.addFlashAttribute("successMessage",
+                    updated == 0 ? "No roles were changed." : "Updated the role of " + updated + " user(s).");
+        } catch (IllegalArgumentException e) {
+            redirectAttributes.addFlashAttribute("errorMessage", "Could not update roles: " + e.getMessage());
+        }
+
+        // Back to the same filtered page
+        for (String filter : List.of("emailPrefix", "role", "afterEmail")) {
+            String value = params.get(filter);
+            if (value != null && !value.isBlank()) {
+                redirectAttributes.addAttribute(filter, value);
+            }
+        }
         return "redirect:/admin/dashboard";
     }
-}
\ No newline at end of file
+
+    @GetMapping("/shards")
+    public String showCampusOverview(Model model) {
+        model.addAttribute("campuses", adminService.getCampusOverview());
+        model.addAttribute("statuses", RequestStatus.values());
+        model.addAttribute("currentShard", shardRouter.currentShard());
+        model.addAttribute("defaultShard", shardRouter.getDefaultShard());
+        return "admin-shards";
+    }
+
+    /**
+     * Switches the campus shard the admin's session works on (requests, imports, SLA figures).
+     */
+    @PostMapping("/shards/select")
+    public String selectCampus(@RequestParam("shard") String shard, HttpSession session,
+                               RedirectAttributes redirectAttributes) {
+        if (!shardRouter.getShards().contains(shard)) {
+            redirectAttributes.addFlashAttribute("errorMessage", "Unknown campus: " + shard);
+        } else {
+            session.setAttribute(ShardRoutingFilter.SESSION_ATTRIBUTE, shard);
+            redirectAttributes.addFlashAttribute("successMessage", "Now working on campus " + shard + ".");
+        }
+        return "redirect:/admin/shards";
+    }
+
+    @GetMapping("/sla")
+    public String showSlaReport(Model model) {
+        model.addAttribute("report", slaMetricsService.getReport());
+        return "admin-sla";
+    }
+
+    @PostMapping("/sla/backfill")
+    public String startSlaBackfill(RedirectAttributes redirectAttributes) {
+        if (slaMetricsService.startBackfill()) {
+            redirectAttributes.addFlashAttribute("successMessage",
+                    "Backfill started: the figures are being rebuilt from all stored approval history.");
+        } else {
+            redirectAttributes.addFlashAttribute("errorMessage", "A backfill is already running.");
+        }
+        return "redirect:/admin/sla";
+    }
+}
@@ -2,10 +2,15 @@ package in.srmup.odms.controller;
 
 import in.srmup.odms.model.EventRequest;
 import in.srmup.odms.model.RequestStatus;
-import in.srmup.odms.repository.ApprovalHistoryRepository;
 import in.srmup.odms.repository.EventRequestRepository;
+import in.srmup.odms.repository.FacultyMasterRepository;
+import in.srmup.odms.service.ApprovalHistoryArchiveService;
+import in.srmup.odms.service.DashboardRowRenderer;
 import in.srmup.odms.service.EventRequestService;
+import in.srmup.odms.service.RequestSearchService;
+import in.srmup.odms.service.WorkflowEngine;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -18,6 +23,8 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Controller
 @RequestMapping("/approver")
@@ -30,7 +37,19 @@ public class ApproverDashboardController {
     private EventRequestService eventRequestService;
 
     @Autowired
-    private ApprovalHistoryRepository approvalHistoryRepository;
+    private ApprovalHistoryArchiveService approvalHistoryArchiveService;
+
+    @Autowired
+    private DashboardRowRenderer dashboardRowRenderer;
+
+    @Autowired
+    private RequestSearchService requestSearchService;
+
+    @Autowired
+    private FacultyMasterRepository facultyMasterRepository;
+
+    @Autowired
+    private WorkflowEngine workflowEngine;
 
     @GetMapping("/dashboard")
     public String showDashboard(Model model, @AuthenticationPrincipal UserDetails userDetails) {
@@ -52,24 +71,38 @@ public class ApproverDashboardController {
                 }
             }
 
-            // 1. Get requests "Pending My Action"
-            RequestStatus myPendingStatus = getRequiredStatusForRole(userRole);
-            List<EventRequest> pendingMyAction = (myPendingStatus != null)
-                    ? eventRequestRepository.findByStatusAndIsHiddenFalse(myPendingStatus)
-                    : Collections.emptyList();
-
-            // 2. Get requests "In Progress" (approved by me, waiting for others)
-            List<RequestStatus> inProgressStatuses = getInProgressStatuses(userRole);
-            List<EventRequest> inProgress = eventRequestRepository.findByIsHiddenFalseAndStatusInOrderByIdAsc(inProgressStatuses);
-
-            // 3. Get "Finalized" requests (Approved or Rejected)
+            // 1. Get requests "Pending My Action": the statuses where my stage can act, narrowed to
+            // requests whose own workflow is waiting for me (parallel steps I already approved drop out)
+            final String role = userRole;
+            Set<RequestStatus> myPendingStatuses = workflowEngine.actionableStatuses(userRole);
+            List<EventRequest> pendingMyAction = myPendingStatuses.isEmpty()
+                    ? Collections.emptyList()
+                    : eventRequestRepository.findByIsHiddenFalseAndStatusInOrderByIdAsc(List.copyOf(myPendingStatuses)).stream()
+                            .filter(request -> workflowEngine.canApprove(request, role))
+                            .toList();
+
+            // 2. Get requests "In Progress" (approved by me, waiting for others), as cached row HTML
+            Set<RequestStatus> inProgressStatuses = workflowEngine.downstreamStatuses(userRole);
+            Set<Long> pendingIds = pendingMyAction.stream().map(EventRequest::getId).collect(Collectors.toSet());
+            List<String> inProgress = inProgressStatuses.isEmpty()
+                    ? Collections.emptyList()
+                    : dashboardRowRenderer.renderRows(DashboardRowRenderer.APPROVER_STATUS_ROW,
+                            eventRequestRepository.findRowKeysByStatusInOrderByIdAsc(List.copyOf(inProgressStatuses)).stream()
+                                    .filter(key -> !pendingIds.contains(key.getId()))
+                                    .toList());
+
+            // 3. Get "Finalized" requests (Approved or Rejected), as cached row HTML
             List<RequestStatus> finalStatuses = List.of(RequestStatus.APPROVED, RequestStatus.REJECTED);
-            List<EventRequest> finalized = eventRequestRepository.findByIsHiddenFalseAndStatusInOrderByIdDesc(finalStatuses);
+            List<String> finalized = dashboardRowRenderer.renderRows(DashboardRowRenderer.APPROVER_STATUS_ROW,
+                    eventRequestRepository.findRowKeysByStatusInOrderByIdDesc(finalStatuses));
 
             // Ensure all lists are never null
             model.addAttribute("pendingMyAction", pendingMyAction != null ? pendingMyAction : Collections.emptyList());
             model.addAttribute("inProgress", inProgress != null ? inProgress : Collections.emptyList());
             model.addAttribute("finalized", finalized != null ? finalized : Collections.emptyList());
+            // Rows are already HTML; one insert instead of a th:each over thousands of rows
+            model.addAttribute("inProgressHtml", String.join("", inProgress));
+            model.addAttribute("finalizedHtml", String.join("", finalized));
             model.addAttribute("userRole", userRole);
 
             return "approver-dashboard";
@@ -91,7 +124,7 @@ public class ApproverDashboardController {
         EventRequest eventRequest = eventRequestRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Event Request not found"));
 
-        var approvalHistory = approvalHistoryRepository.findByEventRequestIdOrderByActionTimestampAsc(id);
+        var approvalHistory = approvalHistoryArchiveService.findHistory(eventRequest);
 
         model.addAttribute("event", eventRequest);
         model.addAttribute("participants", eventRequest.getParticipants());
@@ -103,19 +136,41 @@ public class ApproverDashboardController {
                     .map(GrantedAuthority::getAuthority)
                     .findFirst().orElse("");
             model.addAttribute("userRole", userRole);
-            model.addAttribute("canApprove", canUserApprove(eventRequest.getStatus(), userRole));
+            model.addAttribute("canApprove", workflowEngine.canApprove(eventRequest, userRole));
         }
 
         return "event-details";
     }
 
+    @GetMapping("/search")
+    public String searchRequests(@ModelAttribute("criteria") RequestSearchService.SearchCriteria criteria, Model model) {
+        RequestSearchService.SearchResult result = requestSearchService.search(criteria);
+
+        model.addAttribute("result", result);
+        model.addAttribute("resultsHtml", String.join("",
+                dashboardRowRenderer.renderRows(DashboardRowRenderer.APPROVER_STATUS_ROW, result.getRows())));
+        model.addAttribute("statuses", RequestStatus.values());
+        model.addAttribute("allFaculty", facultyMasterRepository.findAll());
+        return "approver-search";
+    }
+
     @PostMapping("/approve/{id}")
     public String approveRequest(@PathVariable("id") Long id,
                                  @RequestParam(required = false) String comments,
                                  @AuthenticationPrincipal UserDetails userDetails,
                                  RedirectAttributes redirectAttributes) {
         try {
-            eventRequestService.approveRequest(id, userDetails);
+            // Parallel approvers can save the same request at once; the loser retries on the fresh version
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    eventRequestService.approveRequest(id, userDetails);
+                    break;
+                } catch (OptimisticLockingFailureException e) {
+                    if (attempt == 2) {
+                        throw e;
+                    }
+                }
+            }
             redirectAttributes.addFlashAttribute("successMessage",
                     "Request approved successfully! It has been forwarded to the next approver.");
         } catch (IllegalStateException e) {
@@ -151,31 +206,4 @@ public class ApproverDashboardController {
         }
         return "redirect:/approver/dashboard";
     }
-
-    private boolean canUserApprove(RequestStatus currentStatus, String userRole) {
-        return switch (userRole) {
-            case "ROLE_EVENT_COORDINATOR" -> currentStatus == RequestStatus.SUBMITTED;
-            case "ROLE_STUDENT_WELFARE" -> currentStatus == RequestStatus.PENDING_WELFARE_APPROVAL;
-            case "ROLE_HOD" -> currentStatus == RequestStatus.PENDING_HOD_APPROVAL;
-            default -> false;
-        };
-    }
-
-    private RequestStatus getRequiredStatusForRole(String role) {
-        return switch (role) {
-            case "ROLE_EVENT_COORDINATOR" -> RequestStatus.SUBMITTED;
-            case "ROLE_STUDENT_WELFARE" -> RequestStatus.PENDING_WELFARE_APPROVAL;
-            case "ROLE_HOD" -> RequestStatus.PENDING_HOD_APPROVAL;
-            default -> null;
-        };
-    }
-
-    private List<RequestStatus> getInProgressStatuses(String role) {
-        return switch (role) {
-            case "ROLE_EVENT_COORDINATOR" ->
-                    List.of(RequestStatus.PENDING_WELFARE_APPROVAL, RequestStatus.PENDING_HOD_APPROVAL);
-            case "ROLE_STUDENT_WELFARE" -> List.of(RequestStatus.PENDING_HOD_APPROVAL);
-            default -> Collections.emptyList();
-        };
-    }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package in.srmup.odms.controller;
 
-import in.srmup.odms.service.DataImportService;
+import in.srmup.odms.service.ImportJob;
+import in.srmup.odms.service.ImportJobService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -11,65 +12,61 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.util.concurrent.RejectedExecutionException;
+
 @Controller
 @RequestMapping("/admin/import")
 public class DataImportController {
 
     @Autowired
-    private DataImportService dataImportService;
+    private ImportJobService importJobService;
 
     @GetMapping
     public String showImportPage(Model model) {
+        model.addAttribute("importJobs", importJobService.listJobs());
         return "admin-import";
     }
 
     @PostMapping("/students")
     public String handleStudentImport(@RequestParam("file") MultipartFile file, 
+                                    @RequestParam(value = "mode", required = false) ImportJob.Mode mode,
                                     @RequestParam(value = "clearData", required = false) boolean clearData,
                                     RedirectAttributes redirectAttributes) {
-        if (file.isEmpty()) {
-            redirectAttributes.addFlashAttribute("errorMessage", "Please select a file to upload.");
-            return "redirect:/admin/import";
-        }
-
-        try {
-            if (clearData) {
-                dataImportService.clearAllStudentData();
-            }
-            int importedCount = dataImportService.importStudentsFromCsv(file);
-            redirectAttributes.addFlashAttribute("successMessage", 
-                "Successfully imported " + importedCount + " students." + 
-                (clearData ? " Previous data was cleared." : ""));
-        } catch (Exception e) {
-            redirectAttributes.addFlashAttribute("errorMessage", 
-                "An error occurred during student import: " + e.getMessage());
-        }
-
-        return "redirect:/admin/import";
+        return submitImport(ImportJob.Type.STUDENTS, file, ImportJob.resolveMode(mode, clearData), redirectAttributes);
     }
 
     @PostMapping("/faculty")
     public String handleFacultyImport(@RequestParam("file") MultipartFile file, 
+                                    @RequestParam(value = "mode", required = false) ImportJob.Mode mode,
                                     @RequestParam(value = "clearData", required = false) boolean clearData,
                                     RedirectAttributes redirectAttributes) {
+        return submitImport(ImportJob.Type.FACULTY, file, ImportJob.resolveMode(mode, clearData), redirectAttributes);
+    }
+
+    // The import itself runs in the background; progress shows up in the jobs table
+    private String submitImport(ImportJob.Type type, MultipartFile file, ImportJob.Mode mode,
+                                RedirectAttributes redirectAttributes) {
         if (file.isEmpty()) {
             redirectAttributes.addFlashAttribute("errorMessage", "Please select a file to upload.");
             return "redirect:/admin/import";
         }
 
         try {
-            if (clearData) {
-                dataImportService.clearAllFacultyData();
-            }
-            int importedCount = dataImportService.importFacultyFromCsv(file);
-            redirectAttributes.addFlashAttribute("successMessage", 
-                "Successfully imported " + importedCount + " faculty members." + 
-                (clearData ? " Previous data was cleared." : ""));
+            ImportJob job = importJobService.submit(type, file, mode);
+            redirectAttributes.addFlashAttribute("successMessage",
+                "Import job " + job.getId() + " queued for " + file.getOriginalFilename() + "." + switch (mode) {
+                    case UPSERT -> " New rows will be added and changed rows updated.";
+                    case SYNC -> " Rows missing from the file will also be removed.";
+                    case REPLACE -> " Existing data will be replaced when it completes.";
+                });
+        } catch (RejectedExecutionException e) {
+            redirectAttributes.addFlashAttribute("errorMessage",
+                "Too many imports are already queued. Please try again once the current ones finish.");
         } catch (Exception e) {
-            redirectAttributes.addFlashAttribute("errorMessage", 
-                "An error occurred during faculty import: " + e.getMessage());
+            redirectAttributes.addFlashAttribute("errorMessage",
+                "An error occurred while queuing the import: " + e.getMessage());
         }
 
         return "redirect:/admin/import";
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,9 @@
 package in.srmup.odms.controller;
 
+import in.srmup.odms.config.sharding.ShardRoutingFilter;
+import in.srmup.odms.service.ShardRouter;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Profile;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -26,6 +29,9 @@ import java.util.List;
 @ConditionalOnProperty(name = "app.security.dev-login.enabled", havingValue = "true")
 public class DevLoginController {
 
+    @Autowired
+    private ShardRouter shardRouter;
+
     @GetMapping("/dev-login")
     public String showDevLoginPage(Model model) {
         // List of all roles to populate the dropdown
@@ -63,6 +69,10 @@ public class DevLoginController {
                 securityContext
         );
 
+        if (shardRouter.isSharded()) {
+            request.getSession().setAttribute(ShardRoutingFilter.SESSION_ATTRIBUTE, shardRouter.shardForUser(username));
+        }
+
         System.out.println("Dev Login: User '" + username + "' logged in with role: " + role);
 
         // Redirect to the role-based dashboard (using the same logic as your success handler)
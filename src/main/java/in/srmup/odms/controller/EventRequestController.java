@@ -5,9 +5,13 @@ import in.srmup.odms.model.EventRequest;
 import in.srmup.odms.model.FacultyMaster;
 import in.srmup.odms.model.Participant;
 import in.srmup.odms.model.RequestStatus;
+import in.srmup.odms.model.StudentMaster;
 import in.srmup.odms.repository.EventRequestRepository;
 import in.srmup.odms.repository.FacultyMasterRepository;
 import in.srmup.odms.service.EventRequestService;
+import in.srmup.odms.service.IdempotencyService;
+import in.srmup.odms.service.ShardRouter;
+import in.srmup.odms.service.WorkflowEngine;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -19,6 +23,7 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 @Controller
 @RequestMapping("/event-requests")
@@ -33,12 +38,23 @@ public class EventRequestController {
     @Autowired
     private FacultyMasterRepository facultyMasterRepository;
 
+    @Autowired
+    private WorkflowEngine workflowEngine;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
     @GetMapping("/new")
     public String showRequestForm(Model model) {
         try {
             EventRequest eventRequest = new EventRequest();
             eventRequest.addParticipant(new Participant());
             model.addAttribute("eventRequest", eventRequest);
+            // One-time key: a double-click or resubmit of this form is answered with the first result
+            model.addAttribute("submissionToken", idempotencyService.newToken());
 
             // Load all faculty for selection
             List<FacultyMaster> allFaculty = facultyMasterRepository.findAll();
@@ -54,11 +70,48 @@ public class EventRequestController {
     }
 
     @PostMapping("/submit")
-    public String submitRequestForm(@ModelAttribute EventRequest eventRequest) {
-        eventRequestService.createEventRequest(eventRequest);
+    public String submitRequestForm(@ModelAttribute EventRequest eventRequest,
+                                    @RequestParam(value = "submissionToken", required = false) String submissionToken,
+                                    Model model) {
+        try {
+            idempotencyService.execute(submissionToken, () -> submitToParticipantsShard(eventRequest));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            // Show the form again with what was entered so the organizer can fix the rows
+            if (eventRequest.getParticipants().isEmpty()) {
+                eventRequest.addParticipant(new Participant());
+            }
+            model.addAttribute("eventRequest", eventRequest);
+            model.addAttribute("allFaculty", facultyMasterRepository.findAll());
+            // The failed attempt released the token, so the corrected form can reuse it
+            model.addAttribute("submissionToken", submissionToken);
+            model.addAttribute("errorMessage", e.getMessage());
+            return "event-request-form";
+        }
         return "redirect:/event-requests/my-requests"; // Redirect to the student's dashboard
     }
 
+    // The request is stored on the campus shard of its participants' departments
+    private Long submitToParticipantsShard(EventRequest eventRequest) {
+        List<String> regNos = eventRequest.getParticipants().stream()
+                .map(Participant::getRegNo)
+                .filter(regNo -> regNo != null && !regNo.isBlank())
+                .map(StudentMaster::normalizeRegistrationNumber)
+                .toList();
+        String shard = shardRouter.shardForStudents(regNos);
+        FacultyMaster coordinator = eventRequest.getFacultyCoordinator();
+        if (!shard.equals(shardRouter.currentShard()) && coordinator != null && coordinator.getId() != null) {
+            // The coordinator was picked from this shard's faculty list: find the same person on the participants' campus
+            String email = facultyMasterRepository.findById(coordinator.getId()).map(FacultyMaster::getFacultyEmail).orElse(null);
+            FacultyMaster onShard = email == null ? null
+                    : shardRouter.inShard(shard, () -> facultyMasterRepository.findByFacultyEmail(email).orElse(null));
+            if (onShard == null) {
+                throw new IllegalArgumentException("The selected faculty coordinator is not on the participants' campus (" + shard + ").");
+            }
+            eventRequest.setFacultyCoordinator(onShard);
+        }
+        return shardRouter.inShard(shard, () -> eventRequestService.createEventRequest(eventRequest).getId());
+    }
+
     @GetMapping("/success")
     public String showSuccessPage() {
         return "success-page";
@@ -78,25 +131,12 @@ public class EventRequestController {
                 .findFirst()
                 .orElse("");
 
-        RequestStatus requiredStatus = null;
-        switch (userRole) {
-            case "ROLE_EVENT_COORDINATOR":
-                requiredStatus = RequestStatus.SUBMITTED;
-                break;
-            case "ROLE_STUDENT_WELFARE":
-                requiredStatus = RequestStatus.PENDING_WELFARE_APPROVAL;
-                break;
-            case "ROLE_HOD":
-                requiredStatus = RequestStatus.PENDING_HOD_APPROVAL;
-                break;
-        }
-
-        List<EventRequest> pendingRequests;
-        if (requiredStatus != null) {
-            pendingRequests = eventRequestRepository.findByStatusAndIsHiddenFalse(requiredStatus); // You'll need to create this method in your repo
-        } else {
-            pendingRequests = Collections.emptyList(); // Or handle as needed
-        }
+        Set<RequestStatus> actionableStatuses = workflowEngine.actionableStatuses(userRole);
+        List<EventRequest> pendingRequests = actionableStatuses.isEmpty()
+                ? Collections.emptyList()
+                : eventRequestRepository.findByIsHiddenFalseAndStatusInOrderByIdAsc(List.copyOf(actionableStatuses)).stream()
+                        .filter(request -> workflowEngine.canApprove(request, userRole))
+                        .toList();
 
         model.addAttribute("requests", pendingRequests);
         return "pending-requests";
@@ -1,28 +1,168 @@
 package in.srmup.odms.controller;
 
-import in.srmup.odms.model.EventRequest;
-import in.srmup.odms.model.RequestStatus;
-import in.srmup.odms.repository.EventRequestRepository;
+import in.srmup.odms.model.FacultyMaster;
+import in.srmup.odms.repository.ClassOdRow;
+import in.srmup.odms.repository.FacultyMasterRepository;
+import in.srmup.odms.repository.ParticipantRepository;
+import in.srmup.odms.service.FacultyCalendarService;
+import in.srmup.odms.service.ShardRouter;
+import in.srmup.odms.service.StudentOdHistoryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Controller
 @RequestMapping("/faculty")
 public class FacultyController {
 
     @Autowired
-    private EventRequestRepository eventRequestRepository;
+    private ParticipantRepository participantRepository;
+
+    @Autowired
+    private FacultyMasterRepository facultyMasterRepository;
+
+    @Autowired
+    private StudentOdHistoryService studentOdHistoryService;
+
+    @Autowired
+    private FacultyCalendarService facultyCalendarService;
+
+    @Autowired
+    private ShardRouter shardRouter;
 
     @GetMapping("/dashboard")
-    public String showFacultyDashboard(Model model) {
-        // Use our new repository method to get all fully approved requests
-        List<EventRequest> approvedRequests = eventRequestRepository.findByIsHiddenFalseAndStatusOrderByApprovedDateDesc(RequestStatus.APPROVED);
-        model.addAttribute("requests", approvedRequests);
-        return "faculty-dashboard"; // The name of our new HTML file
+    public String showFacultyDashboard(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                                       @RequestParam(defaultValue = "day") String range,
+                                       @RequestParam(required = false) String branch,
+                                       @RequestParam(required = false) String section,
+                                       @AuthenticationPrincipal UserDetails userDetails,
+                                       Model model) {
+        LocalDate day = date != null ? date : LocalDate.now();
+        boolean week = "week".equalsIgnoreCase(range);
+        LocalDate from = week ? day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)) : day;
+        LocalDate to = week ? from.plusDays(6) : day;
+
+        // A class teacher (a faculty record with a branch and section) only ever sees their own
+        // section; anyone else, HODs and coordinators included, picks the class
+        Optional<FacultyMaster> classTeacher = userDetails == null ? Optional.empty()
+                : facultyMasterRepository.findByFacultyEmail(userDetails.getUsername()).filter(FacultyController::hasClass);
+        if (classTeacher.isPresent()) {
+            branch = classTeacher.get().getBranch();
+            section = classTeacher.get().getSection();
+        }
+
+        model.addAttribute("date", day);
+        model.addAttribute("range", week ? "week" : "day");
+        model.addAttribute("from", from);
+        model.addAttribute("to", to);
+        model.addAttribute("previousDate", week ? day.minusWeeks(1) : day.minusDays(1));
+        model.addAttribute("nextDate", week ? day.plusWeeks(1) : day.plusDays(1));
+        model.addAttribute("classLocked", classTeacher.isPresent());
+        if (classTeacher.isPresent()) {
+            String email = classTeacher.get().getFacultyEmail();
+            ServletUriComponentsBuilder feedUrl = ServletUriComponentsBuilder.fromCurrentContextPath();
+            feedUrl.path("/faculty/calendar.ics")
+                    .queryParam("email", email)
+                    .queryParam("token", facultyCalendarService.tokenFor(email));
+            // The feed is polled without a session, so it names the campus shard itself
+            if (shardRouter.isSharded()) {
+                feedUrl.queryParam("campus", shardRouter.currentShard());
+            }
+            model.addAttribute("calendarFeedUrl", feedUrl.toUriString());
+        }
+        model.addAttribute("branch", branch);
+        model.addAttribute("section", section);
+
+        if (branch == null || branch.isBlank() || section == null || section.isBlank()) {
+            model.addAttribute("classOds", List.of());
+            model.addAttribute("errorMessage", "Choose a branch and section to see its students on OD.");
+            return "faculty-dashboard";
+        }
+        List<ClassOdRow> classOds = participantRepository.findClassOds(branch.trim(), section.trim(), from, to);
+        model.addAttribute("classOds", classOds);
+        model.addAttribute("studentCount", classOds.stream().map(ClassOdRow::getRegNo).distinct().count());
+        return "faculty-dashboard";
+    }
+
+    // Subscription feed of the faculty's class ODs; polled by calendar apps without a session
+    @GetMapping("/calendar.ics")
+    public ResponseEntity<byte[]> calendarFeed(@RequestParam String email, @RequestParam String token,
+                                               @RequestParam(required = false) String campus,
+                                               WebRequest webRequest) {
+        if (!facultyCalendarService.isValidToken(email, token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        String shard = campus != null ? campus : shardRouter.getDefaultShard();
+        if (!shardRouter.getShards().contains(shard)) {
+            return ResponseEntity.notFound().build();
+        }
+        return shardRouter.inShard(shard, () -> calendarFeed(email, webRequest));
+    }
+
+    private ResponseEntity<byte[]> calendarFeed(String email, WebRequest webRequest) {
+        Optional<FacultyMaster> faculty = facultyMasterRepository.findByFacultyEmail(email.trim());
+        if (faculty.isEmpty() || !hasClass(faculty.get())) {
+            return ResponseEntity.notFound().build();
+        }
+
+        FacultyCalendarService.Feed feed = facultyCalendarService.getFeed(faculty.get().getBranch(), faculty.get().getSection());
+        CacheControl cacheControl = CacheControl.maxAge(5, TimeUnit.MINUTES).cachePrivate();
+        // Sets 304 and the ETag header when If-None-Match matches
+        if (webRequest.checkNotModified(feed.getEtag())) {
+            facultyCalendarService.countNotModified();
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok()
+                .contentType(new MediaType("text", "calendar", StandardCharsets.UTF_8))
+                .cacheControl(cacheControl)
+                .eTag(feed.getEtag())
+                .body(feed.getBody());
+    }
+
+    @GetMapping("/student-history")
+    public String showStudentHistory(@RequestParam(required = false) String regNo,
+                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate beforeDate,
+                                     @RequestParam(required = false) Long beforeId,
+                                     Model model) {
+        model.addAttribute("regNo", regNo);
+        if (regNo == null || regNo.isBlank()) {
+            return "student-od-history";
+        }
+        try {
+            StudentOdHistoryService.OdHistoryPage page = studentOdHistoryService.getHistory(regNo, beforeDate, beforeId, null);
+            if (page == null) {
+                model.addAttribute("errorMessage", "No student or OD requests found for " + regNo.trim() + ".");
+            } else {
+                model.addAttribute("history", page);
+            }
+        } catch (IllegalArgumentException e) {
+            model.addAttribute("errorMessage", e.getMessage());
+        }
+        return "student-od-history";
+    }
+
+    private static boolean hasClass(FacultyMaster faculty) {
+        return faculty.getBranch() != null && !faculty.getBranch().isBlank()
+                && faculty.getSection() != null && !faculty.getSection().isBlank();
     }
-}
\ No newline at end of file
+}
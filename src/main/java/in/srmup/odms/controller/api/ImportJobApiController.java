@@ -0,0 +1,66 @@
+package in.srmup.odms.controller.api;
+
+import in.srmup.odms.service.ImportJob;
+import in.srmup.odms.service.ImportJobService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.RejectedExecutionException;
+
+@RestController
+@RequestMapping("/admin/api/import-jobs")
+public class ImportJobApiController {
+
+    @Autowired
+    private ImportJobService importJobService;
+
+    /**
+     * Queues an import of type "students" or "faculty" and returns the job (202) right away.
+     * {@code mode} is UPSERT, SYNC or REPLACE; the older {@code clearData=true} still means REPLACE.
+     */
+    @PostMapping("/{type}")
+    public ResponseEntity<ImportJob> submitImport(@PathVariable String type,
+                                                  @RequestParam("file") MultipartFile file,
+                                                  @RequestParam(value = "mode", required = false) ImportJob.Mode mode,
+                                                  @RequestParam(value = "clearData", required = false) boolean clearData) {
+        ImportJob.Type jobType;
+        try {
+            jobType = ImportJob.Type.valueOf(type.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+        if (file.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(importJobService.submit(jobType, file, ImportJob.resolveMode(mode, clearData)));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    // Running and recently finished jobs, newest first
+    @GetMapping
+    public List<ImportJob> listJobs() {
+        return importJobService.listJobs();
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ImportJob> getJob(@PathVariable String id) {
+        return importJobService.getJob(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
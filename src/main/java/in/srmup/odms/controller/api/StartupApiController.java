@@ -0,0 +1,122 @@
+package in.srmup.odms.controller.api;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/admin/api")
+public class StartupApiController {
+
+    @Autowired
+    private ApplicationStartup applicationStartup;
+
+    /**
+     * Startup phases recorded by BufferingApplicationStartup, in start order or
+     * (with sort=duration) slowest first.
+     */
+    @GetMapping("/startup")
+    public ResponseEntity<StartupReport> getStartupTimeline(@RequestParam(defaultValue = "start") String sort,
+                                                            @RequestParam(defaultValue = "200") int limit) {
+        if (!(applicationStartup instanceof BufferingApplicationStartup buffering)) {
+            // Not started through OdManagementSystemApplication.main (e.g. tests)
+            return ResponseEntity.notFound().build();
+        }
+
+        StartupTimeline timeline = buffering.getBufferedTimeline();
+        Instant startTime = timeline.getStartTime();
+
+        Comparator<StartupTimeline.TimelineEvent> order = "duration".equals(sort)
+                ? Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed()
+                : Comparator.comparing(StartupTimeline.TimelineEvent::getStartTime);
+
+        List<StartupStepView> steps = timeline.getEvents().stream()
+                .sorted(order)
+                .limit(Math.max(1, limit))
+                .map(event -> new StartupStepView(
+                        event.getStartupStep().getName(),
+                        Duration.between(startTime, event.getStartTime()).toMillis(),
+                        event.getDuration().toMillis(),
+                        tagsOf(event.getStartupStep())))
+                .collect(Collectors.toList());
+
+        return ResponseEntity.ok(new StartupReport(startTime, timeline.getEvents().size(), steps));
+    }
+
+    private static Map<String, String> tagsOf(StartupStep step) {
+        Map<String, String> tags = new LinkedHashMap<>();
+        step.getTags().forEach(tag -> tags.put(tag.getKey(), tag.getValue()));
+        return tags;
+    }
+
+    // Inner class for the timeline response
+    public static class StartupReport {
+        private Instant startTime;
+        private int recordedSteps;
+        private List<StartupStepView> steps;
+
+        public StartupReport(Instant startTime, int recordedSteps, List<StartupStepView> steps) {
+            this.startTime = startTime;
+            this.recordedSteps = recordedSteps;
+            this.steps = steps;
+        }
+
+        public Instant getStartTime() {
+            return startTime;
+        }
+
+        public int getRecordedSteps() {
+            return recordedSteps;
+        }
+
+        public List<StartupStepView> getSteps() {
+            return steps;
+        }
+    }
+
+    // Inner class for a single startup phase
+    public static class StartupStepView {
+        private String name;
+        private long startOffsetMillis;
+        private long durationMillis;
+        private Map<String, String> tags;
+
+        public StartupStepView(String name, long startOffsetMillis, long durationMillis, Map<String, String> tags) {
+            this.name = name;
+            this.startOffsetMillis = startOffsetMillis;
+            this.durationMillis = durationMillis;
+            this.tags = tags;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getStartOffsetMillis() {
+            return startOffsetMillis;
+        }
+
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        public Map<String, String> getTags() {
+            return tags;
+        }
+    }
+}
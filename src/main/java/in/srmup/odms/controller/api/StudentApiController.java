@@ -2,93 +2,135 @@ package in.srmup.odms.controller.api;
 
 import in.srmup.odms.model.StudentMaster;
 import in.srmup.odms.repository.StudentMasterRepository;
+import in.srmup.odms.service.ShardRouter;
+import in.srmup.odms.service.StudentOdHistoryService;
+import in.srmup.odms.service.StudentSearchService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/students")
 public class StudentApiController {
 
+    // Largest list the form may resolve in one call; keeps the IN query to a single statement
+    private static final int MAX_BATCH_SIZE = 500;
+
     @Autowired
     private StudentMasterRepository studentMasterRepository;
 
+    @Autowired
+    private StudentOdHistoryService studentOdHistoryService;
+
+    @Autowired
+    private StudentSearchService studentSearchService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
     @GetMapping("/{regNo}")
     public ResponseEntity<StudentMaster> getStudentDetails(@PathVariable String regNo) {
-        return studentMasterRepository.findById(regNo)
+        // Students of every campus can be on one form, so all shards that answer are asked
+        return shardRouter.fanOutAvailable(shard -> studentMasterRepository.findById(StudentMaster.normalizeRegistrationNumber(regNo))).values().stream()
+                .flatMap(Optional::stream)
+                .findFirst()
                 .map(ResponseEntity::ok) // If found, return 200 OK with student data
                 .orElse(ResponseEntity.notFound().build()); // If not found, return 404
     }
 
-    @GetMapping("/search")
-    public ResponseEntity<List<StudentSuggestion>> searchStudents(@RequestParam String query) {
-        if (query == null || query.trim().isEmpty()) {
-            return ResponseEntity.ok(List.of());
+    @PostMapping("/batch")
+    public ResponseEntity<BatchLookupResult> getStudentDetailsBatch(@RequestBody List<String> regNos) {
+        if (regNos == null || regNos.isEmpty()) {
+            return ResponseEntity.ok(new BatchLookupResult(List.of(), List.of()));
         }
-        
-        String searchQuery = query.trim().toUpperCase();
-        List<StudentMaster> students = studentMasterRepository.findAll();
-        
-        List<StudentSuggestion> suggestions = students.stream()
-                .filter(s -> s.getRegistrationNumber() != null && s.getRegistrationNumber().toUpperCase().startsWith(searchQuery))
-                .limit(10)
-                .map(s -> new StudentSuggestion(s.getRegistrationNumber(), s.getName(), s.getBranch(), s.getAcademicYear()))
-                .collect(Collectors.toList());
-        
-        return ResponseEntity.ok(suggestions);
-    }
 
-    // Inner class for autocomplete suggestions
-    public static class StudentSuggestion {
-        private String regNo;
-        private String name;
-        private String branch;
-        private Integer year;
-
-        public StudentSuggestion(String regNo, String name, String branch, Integer year) {
-            this.regNo = regNo;
-            this.name = name;
-            this.branch = branch;
-            this.year = year;
-        }
+        Set<String> requested = regNos.stream()
+                .filter(regNo -> regNo != null && !regNo.isBlank())
+                .map(StudentMaster::normalizeRegistrationNumber)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
 
-        public String getRegNo() {
-            return regNo;
+        if (requested.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().build();
         }
 
-        public void setRegNo(String regNo) {
-            this.regNo = regNo;
-        }
+        Map<String, StudentMaster> found = new HashMap<>();
+        shardRouter.fanOutAvailable(shard -> studentMasterRepository.findAllById(requested))
+                .values()
+                .forEach(students -> students.forEach(student -> found.putIfAbsent(student.getRegistrationNumber(), student)));
+
+        // Keep the caller's order so the form can fill rows positionally
+        List<StudentMaster> students = requested.stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        List<String> notFound = requested.stream()
+                .filter(regNo -> !found.containsKey(regNo))
+                .collect(Collectors.toList());
+
+        return ResponseEntity.ok(new BatchLookupResult(students, notFound));
+    }
 
-        public String getName() {
-            return name;
+    // Pass nextBeforeDate/nextBeforeId from the previous page as beforeDate/beforeId to get the next one
+    @GetMapping("/{regNo}/od-history")
+    public ResponseEntity<StudentOdHistoryService.OdHistoryPage> getOdHistory(
+            @PathVariable String regNo,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate beforeDate,
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            StudentOdHistoryService.OdHistoryPage page = studentOdHistoryService.getHistory(regNo, beforeDate, beforeId, limit);
+            return page != null ? ResponseEntity.ok(page) : ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         }
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<StudentSearchService.StudentSuggestion>> searchStudents(@RequestParam String query) {
+        return ResponseEntity.ok(studentSearchService.search(query));
+    }
+
+    // Inner class for batch lookup responses
+    public static class BatchLookupResult {
+        private List<StudentMaster> students;
+        private List<String> notFound;
 
-        public void setName(String name) {
-            this.name = name;
+        public BatchLookupResult(List<StudentMaster> students, List<String> notFound) {
+            this.students = students;
+            this.notFound = notFound;
         }
 
-        public String getBranch() {
-            return branch;
+        public List<StudentMaster> getStudents() {
+            return students;
         }
 
-        public void setBranch(String branch) {
-            this.branch = branch;
+        public void setStudents(List<StudentMaster> students) {
+            this.students = students;
         }
 
-        public Integer getYear() {
-            return year;
+        public List<String> getNotFound() {
+            return notFound;
         }
 
-        public void setYear(Integer year) {
-            this.year = year;
+        public void setNotFound(List<String> notFound) {
+            this.notFound = notFound;
         }
     }
-}
\ No newline at end of file
+}
@@ -5,11 +5,14 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "approval_history")
+@Table(name = "approval_history", indexes = {
+        @Index(name = "idx_approval_history_event_request", columnList = "event_request_id")
+})
 public class ApprovalHistory {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "approval_history_seq")
+    @SequenceGenerator(name = "approval_history_seq", sequenceName = "approval_history_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,83 @@
+package in.srmup.odms.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cold-tier copy of a finalized request's approval history: all of its
+ * {@link ApprovalHistory} rows serialized and gzip-compressed into one row.
+ */
+@Entity
+@Table(name = "approval_history_archive")
+public class ApprovalHistoryArchive {
+
+    @Id
+    private Long eventRequestId;
+
+    @Column(nullable = false)
+    private int entryCount;
+
+    @Column(nullable = false)
+    private LocalDateTime finalizedAt;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+
+    @Lob
+    @Column(nullable = false)
+    private byte[] payload;
+
+    // Constructors
+    public ApprovalHistoryArchive() {
+    }
+
+    public ApprovalHistoryArchive(Long eventRequestId, int entryCount, LocalDateTime finalizedAt, byte[] payload) {
+        this.eventRequestId = eventRequestId;
+        this.entryCount = entryCount;
+        this.finalizedAt = finalizedAt;
+        this.archivedAt = LocalDateTime.now();
+        this.payload = payload;
+    }
+
+    // Getters and Setters
+    public Long getEventRequestId() {
+        return eventRequestId;
+    }
+
+    public void setEventRequestId(Long eventRequestId) {
+        this.eventRequestId = eventRequestId;
+    }
+
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    public void setEntryCount(int entryCount) {
+        this.entryCount = entryCount;
+    }
+
+    public LocalDateTime getFinalizedAt() {
+        return finalizedAt;
+    }
+
+    public void setFinalizedAt(LocalDateTime finalizedAt) {
+        this.finalizedAt = finalizedAt;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+
+    public void setArchivedAt(LocalDateTime archivedAt) {
+        this.archivedAt = archivedAt;
+    }
+
+    public byte[] getPayload() {
+        return payload;
+    }
+
+    public void setPayload(byte[] payload) {
+        this.payload = payload;
+    }
+}
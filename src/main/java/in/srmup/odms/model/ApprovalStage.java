@@ -0,0 +1,47 @@
+package in.srmup.odms.model;
+
+/**
+ * One approver in the workflow. Each stage is held by one role; when a workflow step
+ * consists of this stage alone the request waits in {@link #getPendingStatus()}.
+ */
+public enum ApprovalStage {
+    COORDINATOR("ROLE_EVENT_COORDINATOR", RequestStatus.SUBMITTED, "Faculty Coordinator"),
+    WELFARE("ROLE_STUDENT_WELFARE", RequestStatus.PENDING_WELFARE_APPROVAL, "Student Welfare"),
+    HOD("ROLE_HOD", RequestStatus.PENDING_HOD_APPROVAL, "Head of Department");
+
+    private final String role;
+    private final RequestStatus pendingStatus;
+    private final String displayName;
+
+    ApprovalStage(String role, RequestStatus pendingStatus, String displayName) {
+        this.role = role;
+        this.pendingStatus = pendingStatus;
+        this.displayName = displayName;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public RequestStatus getPendingStatus() {
+        return pendingStatus;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    // Bit of this stage in EventRequest.completedStages
+    public int bit() {
+        return 1 << ordinal();
+    }
+
+    public static ApprovalStage forRole(String role) {
+        for (ApprovalStage stage : values()) {
+            if (stage.role.equals(role)) {
+                return stage;
+            }
+        }
+        return null;
+    }
+}
@@ -3,14 +3,23 @@ package in.srmup.odms.model;
 import jakarta.persistence.*;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_event_request_status", columnList = "status"),
+        @Index(name = "idx_event_request_coordinator", columnList = "faculty_coordinator_id"),
+        @Index(name = "idx_event_request_dates", columnList = "startDate, endDate"),
+        @Index(name = "idx_event_request_status_dates", columnList = "status, startDate, endDate"),
+        @Index(name = "idx_event_request_status_stage_entered", columnList = "status, stageEnteredAt")
+})
 public class EventRequest {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "event_request_seq")
+    @SequenceGenerator(name = "event_request_seq", sequenceName = "event_request_seq", allocationSize = 50)
     private Long id;
 
     private String eventName;
@@ -28,6 +37,22 @@ public class EventRequest {
     @Column(length = 1000)
     private String rejectionReason;
 
+    // Department whose approval workflow applies; null uses the default workflow
+    private String department;
+
+    // ApprovalStage bits of the current (parallel) step that have already approved
+    @Column(nullable = false, columnDefinition = "INTEGER DEFAULT 0")
+    private int completedStages;
+
+    // When the request was submitted and when it entered its current status, for time-in-stage metrics
+    private LocalDateTime submittedAt;
+    private LocalDateTime stageEnteredAt;
+
+    // Bumped on every update; also keys the cached dashboard rows
+    @Version
+    @Column(columnDefinition = "BIGINT DEFAULT 0")
+    private Long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "faculty_coordinator_id")
     private FacultyMaster facultyCoordinator;
@@ -46,6 +71,14 @@ public class EventRequest {
     )
     private List<ApprovalHistory> approvalHistory = new ArrayList<>();
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public Boolean getIsHidden() {
         return isHidden;
     }
@@ -147,6 +180,38 @@ public class EventRequest {
         this.rejectionReason = rejectionReason;
     }
 
+    public String getDepartment() {
+        return department;
+    }
+
+    public void setDepartment(String department) {
+        this.department = department;
+    }
+
+    public int getCompletedStages() {
+        return completedStages;
+    }
+
+    public void setCompletedStages(int completedStages) {
+        this.completedStages = completedStages;
+    }
+
+    public LocalDateTime getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public void setSubmittedAt(LocalDateTime submittedAt) {
+        this.submittedAt = submittedAt;
+    }
+
+    public LocalDateTime getStageEnteredAt() {
+        return stageEnteredAt;
+    }
+
+    public void setStageEnteredAt(LocalDateTime stageEnteredAt) {
+        this.stageEnteredAt = stageEnteredAt;
+    }
+
     public List<ApprovalHistory> getApprovalHistory() {
         return approvalHistory;
     }
@@ -3,9 +3,16 @@ package in.srmup.odms.model;
 import jakarta.persistence.*;
 
 @Entity
+@Table(indexes = {
+        // Covers the per-student history lookup: reg_no to request id without touching the participant rows
+        @Index(name = "idx_participant_reg_no", columnList = "regNo, event_request_id"),
+        @Index(name = "idx_participant_event_request", columnList = "event_request_id")
+})
 public class Participant {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence: IDs are known before the INSERT, so inserts can be JDBC-batched (IDENTITY forces one round trip per row)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "participant_seq")
+    @SequenceGenerator(name = "participant_seq", sequenceName = "participant_seq", allocationSize = 50)
     private Long id;
 
     private String name;
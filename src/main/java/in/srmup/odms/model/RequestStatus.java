@@ -4,6 +4,7 @@ public enum RequestStatus {
     SUBMITTED,                      // Initial status - Pending Faculty Coordinator approval
     PENDING_WELFARE_APPROVAL,       // Faculty Coordinator approved - Pending Student Welfare approval
     PENDING_HOD_APPROVAL,           // Student Welfare approved - Pending HOD approval
-    APPROVED,                       // Fully approved by all three levels
+    PENDING_PARALLEL_APPROVAL,      // Pending a parallel step (e.g. Student Welfare and HOD together)
+    APPROVED,                       // Fully approved by every stage of its workflow
     REJECTED                        // Rejected at any stage
 }
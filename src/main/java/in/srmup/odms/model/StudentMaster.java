@@ -1,12 +1,23 @@
 package in.srmup.odms.model;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+
+import java.util.Locale;
 
 @Entity
 @Table(name = "student_master")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+// UPDATEs write only the changed columns, so a master-data import and an approval bumping
+// odLeaveCount don't overwrite each other's columns with stale values
+@DynamicUpdate
 public class StudentMaster {
 
     @Id
@@ -22,6 +33,11 @@ public class StudentMaster {
     @Column(nullable = false)
     private int odLeaveCount = 0;
 
+    // Registration numbers are stored upper case; apply to every number that is typed in or imported
+    public static String normalizeRegistrationNumber(String regNo) {
+        return regNo.trim().toUpperCase(Locale.ROOT);
+    }
+
     // No-argument constructor required by JPA
     public StudentMaster() {
     }
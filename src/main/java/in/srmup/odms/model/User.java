@@ -5,11 +5,14 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_role_email", columnList = "role, email")
+})
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @Column(unique = true, nullable = false)
@@ -17,6 +20,9 @@ public class User {
 
     private String role; // e.g., "ROLE_STUDENT_ORGANIZER", "ROLE_ADMIN"
 
+    // Campus department the user works for; picks their shard when sharding is on (null: default shard)
+    private String department;
+
     private String otp;
     private LocalDateTime otpRequestedTime;
 
@@ -44,6 +50,14 @@ public class User {
         this.role = role;
     }
 
+    public String getDepartment() {
+        return department;
+    }
+
+    public void setDepartment(String department) {
+        this.department = department;
+    }
+
     public String getOtp() {
         return otp;
     }
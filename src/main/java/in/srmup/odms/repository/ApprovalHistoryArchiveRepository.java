@@ -0,0 +1,12 @@
+package in.srmup.odms.repository;
+
+import in.srmup.odms.model.ApprovalHistoryArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ApprovalHistoryArchiveRepository extends JpaRepository<ApprovalHistoryArchive, Long> {
+    List<ApprovalHistoryArchive> findByEventRequestIdBetween(Long fromId, Long toId);
+}
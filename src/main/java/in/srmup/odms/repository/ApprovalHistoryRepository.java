@@ -1,12 +1,41 @@
 package in.srmup.odms.repository;
 
 import in.srmup.odms.model.ApprovalHistory;
+import in.srmup.odms.model.RequestStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ApprovalHistoryRepository extends JpaRepository<ApprovalHistory, Long> {
     List<ApprovalHistory> findByEventRequestIdOrderByActionTimestampAsc(Long eventRequestId);
+
+    List<ApprovalHistory> findByEventRequestIdInOrderByEventRequestIdAscActionTimestampAsc(Collection<Long> eventRequestIds);
+
+    /**
+     * IDs of requests in a final status whose last history entry is older than the cutoff,
+     * i.e. candidates for moving to the archive tier.
+     */
+    @Query("SELECT h.eventRequest.id FROM ApprovalHistory h " +
+            "WHERE h.eventRequest.status IN :finalStatuses " +
+            "GROUP BY h.eventRequest.id " +
+            "HAVING MAX(h.actionTimestamp) < :cutoff " +
+            "ORDER BY h.eventRequest.id")
+    List<Long> findArchivableEventRequestIds(@Param("finalStatuses") Collection<RequestStatus> finalStatuses,
+                                             @Param("cutoff") LocalDateTime cutoff,
+                                             Pageable pageable);
+
+    @Query("SELECT MAX(h.id) FROM ApprovalHistory h")
+    Long findMaxId();
+
+    @Modifying
+    @Query("DELETE FROM ApprovalHistory h WHERE h.eventRequest.id IN :eventRequestIds")
+    int deleteByEventRequestIdIn(@Param("eventRequestIds") Collection<Long> eventRequestIds);
 }
@@ -0,0 +1,72 @@
+package in.srmup.odms.repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * One student of a class on an approved OD, selected with a constructor expression from the
+ * (status, startDate, endDate) index joined to the request's participants.
+ */
+public class ClassOdRow {
+
+    private final String regNo;
+    private final String name;
+    private final Long requestId;
+    private final String eventName;
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+    private final LocalTime fromTime;
+    private final LocalTime toTime;
+    // When the request reached APPROVED (it has been in that stage since)
+    private final LocalDateTime approvedAt;
+
+    public ClassOdRow(String regNo, String name, Long requestId, String eventName, LocalDate startDate,
+                      LocalDate endDate, LocalTime fromTime, LocalTime toTime, LocalDateTime approvedAt) {
+        this.regNo = regNo;
+        this.name = name;
+        this.requestId = requestId;
+        this.eventName = eventName;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.fromTime = fromTime;
+        this.toTime = toTime;
+        this.approvedAt = approvedAt;
+    }
+
+    public String getRegNo() {
+        return regNo;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Long getRequestId() {
+        return requestId;
+    }
+
+    public String getEventName() {
+        return eventName;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public LocalTime getFromTime() {
+        return fromTime;
+    }
+
+    public LocalTime getToTime() {
+        return toTime;
+    }
+
+    public LocalDateTime getApprovedAt() {
+        return approvedAt;
+    }
+}
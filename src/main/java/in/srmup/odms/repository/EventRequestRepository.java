@@ -2,9 +2,16 @@ package in.srmup.odms.repository;
 
 import in.srmup.odms.model.EventRequest;
 import in.srmup.odms.model.RequestStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface EventRequestRepository extends JpaRepository<EventRequest, Long> {
@@ -19,4 +26,47 @@ public interface EventRequestRepository extends JpaRepository<EventRequest, Long
     List<EventRequest> findByIsHiddenFalseAndStatusInOrderByIdAsc(List<RequestStatus> statuses);
 
     List<EventRequest> findByIsHiddenFalseAndStatusInOrderByIdDesc(List<RequestStatus> statuses);
-}
\ No newline at end of file
+
+    // Row keys only; the dashboards render unchanged rows from the fragment cache
+    @Query("select new in.srmup.odms.repository.EventRequestRowKey(r.id, r.version) from EventRequest r " +
+            "where r.isHidden = false and r.status in :statuses order by r.id asc")
+    List<EventRequestRowKey> findRowKeysByStatusInOrderByIdAsc(@Param("statuses") List<RequestStatus> statuses);
+
+    @Query("select new in.srmup.odms.repository.EventRequestRowKey(r.id, r.version) from EventRequest r " +
+            "where r.isHidden = false and r.status in :statuses order by r.id desc")
+    List<EventRequestRowKey> findRowKeysByStatusInOrderByIdDesc(@Param("statuses") List<RequestStatus> statuses);
+
+    @EntityGraph(attributePaths = "participants")
+    List<EventRequest> findWithParticipantsByIdIn(Collection<Long> ids);
+
+    // (id, eventName) pairs in ID order, for building the search index in batches
+    @Query("select r.id, r.eventName from EventRequest r where r.id > :afterId order by r.id")
+    List<Object[]> findIdAndEventNameAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    // (status, count) pairs, for the campus overview
+    @Query("select r.status, count(r) from EventRequest r group by r.status")
+    List<Object[]> countByStatus();
+
+    @Query("select min(r.id) from EventRequest r")
+    Long findMinId();
+
+    @Query("select max(r.id) from EventRequest r")
+    Long findMaxId();
+
+    List<EventRequest> findByIdBetween(Long fromId, Long toId);
+
+    // Requests waiting in one of the statuses since before the cutoff, in ID order for keyset paging
+    @Query("select new in.srmup.odms.repository.PendingRequestRow(r.id, r.eventName, r.startDate, r.status, " +
+            "r.completedStages, r.department, r.stageEnteredAt) from EventRequest r " +
+            "where r.status in :statuses and r.stageEnteredAt < :cutoff and r.isHidden = false and r.id > :afterId " +
+            "order by r.id")
+    List<PendingRequestRow> findStalePending(@Param("statuses") Collection<RequestStatus> statuses,
+                                             @Param("cutoff") LocalDateTime cutoff,
+                                             @Param("afterId") long afterId,
+                                             Pageable pageable);
+
+    // Pending requests created before stageEnteredAt existed start their clock now
+    @Modifying
+    @Query("update EventRequest r set r.stageEnteredAt = :now where r.stageEnteredAt is null and r.status in :statuses")
+    int initializeStageEnteredAt(@Param("statuses") Collection<RequestStatus> statuses, @Param("now") LocalDateTime now);
+}
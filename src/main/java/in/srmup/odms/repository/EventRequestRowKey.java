@@ -0,0 +1,24 @@
+package in.srmup.odms.repository;
+
+/**
+ * (id, version) of an EventRequest, selected with a constructor expression so
+ * large dashboard key lists avoid per-row projection proxies.
+ */
+public class EventRequestRowKey {
+
+    private final Long id;
+    private final Long version;
+
+    public EventRequestRowKey(Long id, Long version) {
+        this.id = id;
+        this.version = version;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+}
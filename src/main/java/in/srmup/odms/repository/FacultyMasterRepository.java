@@ -1,14 +1,39 @@
 package in.srmup.odms.repository;
 
 import in.srmup.odms.model.FacultyMaster;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface FacultyMasterRepository extends JpaRepository<FacultyMaster, Long> {
 
+    // Faculty list for the request form; served from the query cache until the next import
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<FacultyMaster> findAll();
+
     // Spring Data JPA will automatically create the query for this method name
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<FacultyMaster> findByBranchAndSection(String branch, String section);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<FacultyMaster> findByFacultyEmail(String email);
-}
\ No newline at end of file
+
+    // The columns a faculty CSV carries, oldest row first, for diffing an import against what is stored
+    @Query("select f.id, f.facultyEmail, f.facultyName, f.branch, f.section from FacultyMaster f order by f.id")
+    List<Object[]> findImportColumns();
+
+    // Deletes the given faculty except those still named as a request's coordinator; returns how many went
+    @Modifying
+    @Query("delete from FacultyMaster f where f.id in :ids and not exists " +
+            "(select r.id from EventRequest r where r.facultyCoordinator.id = f.id)")
+    int deleteUnreferencedByIdIn(@Param("ids") Collection<Long> ids);
+}
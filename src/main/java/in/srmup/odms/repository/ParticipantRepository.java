@@ -0,0 +1,77 @@
+package in.srmup.odms.repository;
+
+import in.srmup.odms.model.Participant;
+import in.srmup.odms.model.RequestStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+public interface ParticipantRepository extends JpaRepository<Participant, Long> {
+
+    // Other requests (excluding excludeId) that put any of these students on OD within [startDate, endDate]
+    @Query("select p.regNo as regNo, r.id as requestId, r.eventName as eventName, " +
+            "r.startDate as startDate, r.endDate as endDate, r.status as status " +
+            "from Participant p join p.eventRequest r " +
+            "where p.regNo in :regNos and r.status in :statuses " +
+            "and r.startDate <= :endDate and r.endDate >= :startDate " +
+            "and (:excludeId is null or r.id <> :excludeId)")
+    List<OverlappingOd> findOverlappingOds(@Param("regNos") Collection<String> regNos,
+                                           @Param("statuses") Collection<RequestStatus> statuses,
+                                           @Param("startDate") LocalDate startDate,
+                                           @Param("endDate") LocalDate endDate,
+                                           @Param("excludeId") Long excludeId);
+
+    // (eventRequestId, name, regNo, branch) for every participant of the requests in an ID range, for the search index
+    @Query("select p.eventRequest.id, p.name, p.regNo, p.branch from Participant p " +
+            "where p.eventRequest.id between :firstId and :lastId")
+    List<Object[]> findSearchTermsByEventRequestIdBetween(@Param("firstId") long firstId, @Param("lastId") long lastId);
+
+    // A student's requests, latest start date first; keyset-paged on (startDate, id)
+    @Query("select new in.srmup.odms.repository.StudentOdHistoryRow(r.id, r.eventName, r.startDate, r.endDate, r.status, r.approvedDate) " +
+            "from Participant p join p.eventRequest r " +
+            "where p.regNo = :regNo " +
+            "and (:beforeDate is null or r.startDate < :beforeDate or (r.startDate = :beforeDate and r.id < :beforeId)) " +
+            "order by r.startDate desc, r.id desc")
+    List<StudentOdHistoryRow> findOdHistory(@Param("regNo") String regNo,
+                                            @Param("beforeDate") LocalDate beforeDate,
+                                            @Param("beforeId") Long beforeId,
+                                            Pageable pageable);
+
+    // Every approved request of a student, for recomputing the OD day total
+    @Query("select new in.srmup.odms.repository.StudentOdHistoryRow(r.id, r.eventName, r.startDate, r.endDate, r.status, r.approvedDate) " +
+            "from Participant p join p.eventRequest r " +
+            "where p.regNo = :regNo and r.status = in.srmup.odms.model.RequestStatus.APPROVED")
+    List<StudentOdHistoryRow> findApprovedOds(@Param("regNo") String regNo);
+
+    // Students of one class whose approved OD overlaps [from, to], in one query: the requests come from
+    // idx_event_request_status_dates, their participants from idx_participant_event_request
+    @Query("select new in.srmup.odms.repository.ClassOdRow(p.regNo, p.name, r.id, r.eventName, r.startDate, r.endDate, r.fromTime, r.toTime, r.stageEnteredAt) " +
+            "from Participant p join p.eventRequest r " +
+            "where r.status = in.srmup.odms.model.RequestStatus.APPROVED and r.isHidden = false " +
+            "and r.startDate <= :to and r.endDate >= :from " +
+            "and p.branch = :branch and p.section = :section " +
+            "order by r.startDate, p.regNo")
+    List<ClassOdRow> findClassOds(@Param("branch") String branch,
+                                  @Param("section") String section,
+                                  @Param("from") LocalDate from,
+                                  @Param("to") LocalDate to);
+
+    interface OverlappingOd {
+        String getRegNo();
+
+        Long getRequestId();
+
+        String getEventName();
+
+        LocalDate getStartDate();
+
+        LocalDate getEndDate();
+
+        RequestStatus getStatus();
+    }
+}
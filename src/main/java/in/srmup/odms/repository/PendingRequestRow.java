@@ -0,0 +1,60 @@
+package in.srmup.odms.repository;
+
+import in.srmup.odms.model.RequestStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * The columns of a pending request the reminder job needs, selected with a constructor
+ * expression from the (status, stageEnteredAt) index so participants and history are never loaded.
+ */
+public class PendingRequestRow {
+
+    private final Long id;
+    private final String eventName;
+    private final LocalDate startDate;
+    private final RequestStatus status;
+    private final int completedStages;
+    private final String department;
+    private final LocalDateTime stageEnteredAt;
+
+    public PendingRequestRow(Long id, String eventName, LocalDate startDate, RequestStatus status,
+                             int completedStages, String department, LocalDateTime stageEnteredAt) {
+        this.id = id;
+        this.eventName = eventName;
+        this.startDate = startDate;
+        this.status = status;
+        this.completedStages = completedStages;
+        this.department = department;
+        this.stageEnteredAt = stageEnteredAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getEventName() {
+        return eventName;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public RequestStatus getStatus() {
+        return status;
+    }
+
+    public int getCompletedStages() {
+        return completedStages;
+    }
+
+    public String getDepartment() {
+        return department;
+    }
+
+    public LocalDateTime getStageEnteredAt() {
+        return stageEnteredAt;
+    }
+}
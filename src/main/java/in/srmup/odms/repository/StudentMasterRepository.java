@@ -2,8 +2,24 @@ package in.srmup.odms.repository;
 
 import in.srmup.odms.model.StudentMaster;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface StudentMasterRepository extends JpaRepository<StudentMaster, String> {
-}
\ No newline at end of file
+
+    // The columns a roster CSV carries, for diffing an import against what is stored
+    @Query("select s.registrationNumber, s.name, s.academicYear, s.branch, s.section, s.department from StudentMaster s")
+    List<Object[]> findImportColumns();
+
+    // Registration number and department only, for deciding which shard a request's participants belong to
+    @Query("select s.registrationNumber, s.department from StudentMaster s where s.registrationNumber in :regNos")
+    List<Object[]> findDepartmentsByRegistrationNumberIn(@Param("regNos") Collection<String> regNos);
+
+    // Autocomplete: a range scan of the primary key index
+    List<StudentMaster> findTop10ByRegistrationNumberStartingWithOrderByRegistrationNumberAsc(String prefix);
+}
@@ -0,0 +1,65 @@
+package in.srmup.odms.repository;
+
+import in.srmup.odms.model.RequestStatus;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * One request a student took part in, selected with a constructor expression
+ * straight from the participant(reg_no) index joined to event_request.
+ */
+public class StudentOdHistoryRow {
+
+    private final Long requestId;
+    private final String eventName;
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+    private final RequestStatus status;
+    private final LocalDate approvedDate;
+
+    public StudentOdHistoryRow(Long requestId, String eventName, LocalDate startDate, LocalDate endDate,
+                               RequestStatus status, LocalDate approvedDate) {
+        this.requestId = requestId;
+        this.eventName = eventName;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.status = status;
+        this.approvedDate = approvedDate;
+    }
+
+    public Long getRequestId() {
+        return requestId;
+    }
+
+    public String getEventName() {
+        return eventName;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public RequestStatus getStatus() {
+        return status;
+    }
+
+    public LocalDate getApprovedDate() {
+        return approvedDate;
+    }
+
+    /**
+     * OD days this request counts towards the student's total: the inclusive
+     * duration once APPROVED, same rule as the count kept on StudentMaster.
+     */
+    public long getDaysCounted() {
+        if (status != RequestStatus.APPROVED || startDate == null || endDate == null) {
+            return 0;
+        }
+        return Math.max(0, ChronoUnit.DAYS.between(startDate, endDate) + 1);
+    }
+}
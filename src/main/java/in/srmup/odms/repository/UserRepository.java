@@ -2,9 +2,26 @@ package in.srmup.odms.repository;
 
 import in.srmup.odms.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
-}
\ No newline at end of file
+
+    // One UPDATE for a whole group of users; returns the number of rows changed
+    @Modifying
+    @Query("update User u set u.role = :role where u.id in :ids and (u.role is null or u.role <> :role)")
+    int updateRoleByIdIn(@Param("ids") Collection<Long> ids, @Param("role") String role);
+
+    // Answered from idx_users_role_email alone
+    @Query("select u.email from User u where u.role = :role order by u.email")
+    List<String> findEmailsByRole(@Param("role") String role);
+
+    @Query("select u.email, u.department from User u where u.role = :role order by u.email")
+    List<Object[]> findEmailsAndDepartmentsByRole(@Param("role") String role);
+}
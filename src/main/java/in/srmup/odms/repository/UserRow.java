@@ -0,0 +1,30 @@
+package in.srmup.odms.repository;
+
+/**
+ * (id, email, role) of a User for the admin user list, selected with a constructor
+ * expression so OTP columns never leave the repository.
+ */
+public class UserRow {
+
+    private final Long id;
+    private final String email;
+    private final String role;
+
+    public UserRow(Long id, String email, String role) {
+        this.id = id;
+        this.email = email;
+        this.role = role;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getRole() {
+        return role;
+    }
+}
@@ -1,20 +1,100 @@
 package in.srmup.odms.service;
 
+import in.srmup.odms.model.RequestStatus;
 import in.srmup.odms.model.User;
+import in.srmup.odms.repository.EventRequestRepository;
+import in.srmup.odms.repository.FacultyMasterRepository;
+import in.srmup.odms.repository.StudentMasterRepository;
 import in.srmup.odms.repository.UserRepository;
+import in.srmup.odms.repository.UserRow;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
+import java.util.*;
 
+/**
+ * User administration. The user list is filtered by email prefix and role and paged by
+ * keyset on email ({@code afterEmail}), so it reads one page from the (role, email) and
+ * email indexes however many accounts exist. With sharding the user directory lives on the
+ * default shard; the campus overview reads every shard in parallel.
+ */
 @Service
 public class AdminService {
 
+    public static final List<String> ROLES = List.of("ROLE_ADMIN", "ROLE_STUDENT_ORGANIZER", "ROLE_EVENT_COORDINATOR",
+            "ROLE_STUDENT_WELFARE", "ROLE_HOD", "ROLE_FACULTY");
+    public static final int PAGE_SIZE = 50;
+    // Keeps each UPDATE ... IN (...) within a sensible parameter count
+    private static final int UPDATE_CHUNK_SIZE = 1000;
+
     @Autowired
     private UserRepository userRepository;
 
-    public List<User> findAllUsers() {
-        return userRepository.findAll();
+    @Autowired
+    private EventRequestRepository eventRequestRepository;
+
+    @Autowired
+    private StudentMasterRepository studentMasterRepository;
+
+    @Autowired
+    private FacultyMasterRepository facultyMasterRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public UserPage findUsers(String emailPrefix, String role, String afterEmail) {
+        String prefix = emailPrefix == null ? "" : emailPrefix.trim();
+        String roleFilter = role == null || role.isBlank() ? null : role;
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<UserRow> cq = cb.createQuery(UserRow.class);
+        Root<User> user = cq.from(User.class);
+        List<Predicate> predicates = filters(cb, user, prefix, roleFilter);
+        if (afterEmail != null && !afterEmail.isBlank()) {
+            predicates.add(cb.greaterThan(user.get("email"), afterEmail));
+        }
+        cq.select(cb.construct(UserRow.class, user.get("id"), user.get("email"), user.get("role")))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.asc(user.get("email")));
+        // One extra row tells us whether there is a next page
+        List<UserRow> rows = entityManager.createQuery(cq).setMaxResults(PAGE_SIZE + 1).getResultList();
+
+        boolean hasMore = rows.size() > PAGE_SIZE;
+        if (hasMore) {
+            rows = rows.subList(0, PAGE_SIZE);
+        }
+        return new UserPage(rows, hasMore ? rows.get(rows.size() - 1).getEmail() : null, countUsers(prefix, roleFilter));
+    }
+
+    private long countUsers(String prefix, String role) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+        Root<User> user = cq.from(User.class);
+        cq.select(cb.count(user)).where(filters(cb, user, prefix, role).toArray(new Predicate[0]));
+        return entityManager.createQuery(cq).getSingleResult();
+    }
+
+    // A plain prefix LIKE (no lower()) so the email index can serve it; login matches emails exactly too
+    private List<Predicate> filters(CriteriaBuilder cb, Root<User> user, String prefix, String role) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (!prefix.isEmpty()) {
+            String escaped = prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+            predicates.add(cb.like(user.get("email"), escaped + "%", '\\'));
+        }
+        if (role != null) {
+            predicates.add(cb.equal(user.get("role"), role));
+        }
+        return predicates;
     }
 
     public void updateUserRole(Long userId, String newRole) {
@@ -27,4 +107,115 @@ public class AdminService {
             userRepository.save(user);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Applies many role changes in one transaction: users are grouped by their new role and
+     * each group is written with one UPDATE per chunk of IDs, instead of a load and save per user.
+     *
+     * @return the number of users whose role actually changed
+     */
+    @Transactional
+    public int updateUserRoles(Map<Long, String> rolesByUserId) {
+        Map<String, List<Long>> idsByRole = new HashMap<>();
+        rolesByUserId.forEach((userId, role) -> {
+            if (!ROLES.contains(role)) {
+                throw new IllegalArgumentException("Unknown role: " + role);
+            }
+            idsByRole.computeIfAbsent(role, r -> new ArrayList<>()).add(userId);
+        });
+
+        int updated = 0;
+        for (Map.Entry<String, List<Long>> group : idsByRole.entrySet()) {
+            List<Long> ids = group.getValue();
+            for (int i = 0; i < ids.size(); i += UPDATE_CHUNK_SIZE) {
+                updated += userRepository.updateRoleByIdIn(ids.subList(i, Math.min(i + UPDATE_CHUNK_SIZE, ids.size())),
+                        group.getKey());
+            }
+        }
+        return updated;
+    }
+
+    /**
+     * Request, student and faculty counts of every campus shard, queried in parallel.
+     */
+    public List<CampusSummary> getCampusOverview() {
+        return List.copyOf(shardRouter.fanOut(shard -> {
+            Map<RequestStatus, Long> requestsByStatus = new EnumMap<>(RequestStatus.class);
+            for (RequestStatus status : RequestStatus.values()) {
+                requestsByStatus.put(status, 0L);
+            }
+            for (Object[] row : eventRequestRepository.countByStatus()) {
+                if (row[0] != null) {
+                    requestsByStatus.put((RequestStatus) row[0], (Long) row[1]);
+                }
+            }
+            return new CampusSummary(shard, shardRouter.getDepartments(shard), requestsByStatus,
+                    studentMasterRepository.count(), facultyMasterRepository.count());
+        }).values());
+    }
+
+    public static class CampusSummary {
+        private final String shard;
+        private final List<String> departments;
+        private final Map<RequestStatus, Long> requestsByStatus;
+        private final long studentCount;
+        private final long facultyCount;
+
+        public CampusSummary(String shard, List<String> departments, Map<RequestStatus, Long> requestsByStatus,
+                             long studentCount, long facultyCount) {
+            this.shard = shard;
+            this.departments = departments;
+            this.requestsByStatus = requestsByStatus;
+            this.studentCount = studentCount;
+            this.facultyCount = facultyCount;
+        }
+
+        public String getShard() {
+            return shard;
+        }
+
+        public List<String> getDepartments() {
+            return departments;
+        }
+
+        public Map<RequestStatus, Long> getRequestsByStatus() {
+            return requestsByStatus;
+        }
+
+        public long getRequestCount() {
+            return requestsByStatus.values().stream().mapToLong(Long::longValue).sum();
+        }
+
+        public long getStudentCount() {
+            return studentCount;
+        }
+
+        public long getFacultyCount() {
+            return facultyCount;
+        }
+    }
+
+    public static class UserPage {
+        private final List<UserRow> rows;
+        private final String nextAfterEmail;
+        private final long totalMatches;
+
+        public UserPage(List<UserRow> rows, String nextAfterEmail, long totalMatches) {
+            this.rows = rows;
+            this.nextAfterEmail = nextAfterEmail;
+            this.totalMatches = totalMatches;
+        }
+
+        public List<UserRow> getRows() {
+            return rows;
+        }
+
+        public String getNextAfterEmail() {
+            return nextAfterEmail;
+        }
+
+        public long getTotalMatches() {
+            return totalMatches;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package in.srmup.odms.service;
+
+import in.srmup.odms.model.ApprovalHistory;
+import in.srmup.odms.model.ApprovalHistoryArchive;
+import in.srmup.odms.model.EventRequest;
+import in.srmup.odms.model.RequestStatus;
+import in.srmup.odms.repository.ApprovalHistoryArchiveRepository;
+import in.srmup.odms.repository.ApprovalHistoryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Hot/cold tiering for approval history. Requests that were finalized (APPROVED or REJECTED)
+ * more than {@code app.history-archive.after-months} ago have their history rows moved into
+ * {@code approval_history_archive}, one compressed row per request, so the hot table and its
+ * index only hold history for requests that are still moving or were decided recently.
+ * <p>
+ * A finalized request can still gain history (an administrator may reject an approved request),
+ * so a request can have rows in both tiers. {@link #findHistory(EventRequest)} is the read path:
+ * it returns the archived entries followed by the hot ones, so callers don't need to know which
+ * tier a request is in, and archiving such a request again appends its new rows to the
+ * existing archive row.
+ */
+@Service
+public class ApprovalHistoryArchiveService {
+
+    private static final List<RequestStatus> FINAL_STATUSES = List.of(RequestStatus.APPROVED, RequestStatus.REJECTED);
+    private static final int PAYLOAD_FORMAT_VERSION = 1;
+
+    @Autowired
+    private ApprovalHistoryRepository approvalHistoryRepository;
+
+    @Autowired
+    private ApprovalHistoryArchiveRepository approvalHistoryArchiveRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${app.history-archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.history-archive.after-months:6}")
+    private int afterMonths;
+
+    @Value("${app.history-archive.batch-size:200}")
+    private int batchSize;
+
+    // Runs at 2:30 AM every day, well clear of the 3 PM digest
+    @Scheduled(cron = "${app.history-archive.cron:0 30 2 * * *}", zone = "Asia/Kolkata")
+    public void archiveFinalizedHistory() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minusMonths(afterMonths);
+        shardRouter.forEachShard(shard -> archiveFinalizedHistory(cutoff, shard));
+    }
+
+    private void archiveFinalizedHistory(LocalDateTime cutoff, String shard) {
+        System.out.println("Archiving approval history of shard " + shard + " for requests finalized before " + cutoff + "...");
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        int archivedRequests = 0;
+        int archivedRows = 0;
+        while (true) {
+            int[] batch = transaction.execute(status -> archiveBatch(cutoff));
+            if (batch == null || batch[0] == 0) {
+                break;
+            }
+            archivedRequests += batch[0];
+            archivedRows += batch[1];
+        }
+        System.out.println("Archived " + archivedRows + " history rows from " + archivedRequests + " requests.");
+    }
+
+    /**
+     * Approval history for a request, oldest first, from both tiers: the archived entries, then
+     * any rows added since. Entries read from the archive are detached copies and must not be
+     * saved back.
+     */
+    public List<ApprovalHistory> findHistory(EventRequest eventRequest) {
+        List<ApprovalHistory> hot = approvalHistoryRepository.findByEventRequestIdOrderByActionTimestampAsc(eventRequest.getId());
+        Optional<ApprovalHistoryArchive> archive = approvalHistoryArchiveRepository.findById(eventRequest.getId());
+        if (archive.isEmpty()) {
+            return hot;
+        }
+        // Archived rows all predate the hot ones: a request is archived only once its last row is past the cutoff
+        List<ApprovalHistory> history = decode(archive.get().getPayload(), eventRequest);
+        history.addAll(hot);
+        return history;
+    }
+
+    /**
+     * The entries of one archive row, oldest first (detached copies, as in {@link #findHistory}).
+     */
+    public List<ApprovalHistory> decodeArchive(ApprovalHistoryArchive archive, EventRequest eventRequest) {
+        return decode(archive.getPayload(), eventRequest);
+    }
+
+    /**
+     * Moves one batch of requests to the archive. Returns {requests archived, rows archived}.
+     */
+    private int[] archiveBatch(LocalDateTime cutoff) {
+        List<Long> requestIds = approvalHistoryRepository.findArchivableEventRequestIds(
+                FINAL_STATUSES, cutoff, PageRequest.of(0, batchSize));
+        if (requestIds.isEmpty()) {
+            return new int[]{0, 0};
+        }
+
+        Map<Long, List<ApprovalHistory>> historyByRequest = new LinkedHashMap<>();
+        for (ApprovalHistory history : approvalHistoryRepository
+                .findByEventRequestIdInOrderByEventRequestIdAscActionTimestampAsc(requestIds)) {
+            historyByRequest.computeIfAbsent(history.getEventRequest().getId(), k -> new ArrayList<>()).add(history);
+        }
+
+        // Requests archived before and finalized again since (rejected after approval) keep their archived entries
+        Map<Long, ApprovalHistoryArchive> existing = new HashMap<>();
+        for (ApprovalHistoryArchive archive : approvalHistoryArchiveRepository.findAllById(historyByRequest.keySet())) {
+            existing.put(archive.getEventRequestId(), archive);
+        }
+
+        List<ApprovalHistoryArchive> archives = new ArrayList<>();
+        int rows = 0;
+        for (Map.Entry<Long, List<ApprovalHistory>> entry : historyByRequest.entrySet()) {
+            List<ApprovalHistory> entries = entry.getValue();
+            LocalDateTime finalizedAt = entries.get(entries.size() - 1).getActionTimestamp();
+            rows += entries.size();
+            ApprovalHistoryArchive archive = existing.get(entry.getKey());
+            if (archive == null) {
+                archives.add(new ApprovalHistoryArchive(entry.getKey(), entries.size(), finalizedAt, encode(entries)));
+            } else {
+                List<ApprovalHistory> merged = decode(archive.getPayload(), entries.get(0).getEventRequest());
+                merged.addAll(entries);
+                archive.setEntryCount(merged.size());
+                archive.setFinalizedAt(finalizedAt);
+                archive.setArchivedAt(LocalDateTime.now());
+                archive.setPayload(encode(merged));
+                archives.add(archive);
+            }
+        }
+        approvalHistoryArchiveRepository.saveAll(archives);
+        approvalHistoryRepository.deleteByEventRequestIdIn(historyByRequest.keySet());
+        return new int[]{archives.size(), rows};
+    }
+
+    private byte[] encode(List<ApprovalHistory> entries) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes))) {
+            out.writeByte(PAYLOAD_FORMAT_VERSION);
+            out.writeInt(entries.size());
+            for (ApprovalHistory history : entries) {
+                out.writeUTF(history.getApproverRole());
+                out.writeUTF(history.getApproverEmail());
+                out.writeUTF(history.getApproverName());
+                out.writeUTF(history.getFromStatus().name());
+                out.writeUTF(history.getToStatus().name());
+                out.writeLong(history.getActionTimestamp().toEpochSecond(ZoneOffset.UTC));
+                out.writeInt(history.getActionTimestamp().getNano());
+                out.writeUTF(history.getAction());
+                out.writeBoolean(history.getComments() != null);
+                if (history.getComments() != null) {
+                    out.writeUTF(history.getComments());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to encode approval history", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private List<ApprovalHistory> decode(byte[] payload, EventRequest eventRequest) {
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(payload)))) {
+            int version = in.readByte();
+            if (version != PAYLOAD_FORMAT_VERSION) {
+                throw new IllegalStateException("Unsupported approval history archive format: " + version);
+            }
+            int count = in.readInt();
+            List<ApprovalHistory> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                ApprovalHistory history = new ApprovalHistory();
+                history.setEventRequest(eventRequest);
+                history.setApproverRole(in.readUTF());
+                history.setApproverEmail(in.readUTF());
+                history.setApproverName(in.readUTF());
+                history.setFromStatus(RequestStatus.valueOf(in.readUTF()));
+                history.setToStatus(RequestStatus.valueOf(in.readUTF()));
+                history.setActionTimestamp(LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC));
+                history.setAction(in.readUTF());
+                history.setComments(in.readBoolean() ? in.readUTF() : null);
+                entries.add(history);
+            }
+            return entries;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to decode approval history for request " + eventRequest.getId(), e);
+        }
+    }
+}
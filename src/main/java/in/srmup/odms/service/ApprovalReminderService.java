@@ -0,0 +1,229 @@
+package in.srmup.odms.service;
+
+import in.srmup.odms.model.ApprovalStage;
+import in.srmup.odms.model.RequestStatus;
+import in.srmup.odms.repository.EventRequestRepository;
+import in.srmup.odms.repository.PendingRequestRow;
+import in.srmup.odms.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+
+/**
+ * Reminds approvers of requests that have been waiting on them too long. One run pages
+ * through the stale requests with a keyset query on the (status, stageEnteredAt) index and
+ * coalesces them into a single mail per approver: requests waiting longer than
+ * {@code app.reminders.remind-after-hours} are listed for the stage's approvers, and those
+ * past {@code app.reminders.escalate-after-hours} are also listed for the next authority
+ * (the approvers of the next step in the request's workflow, or the administrators after the
+ * final step). With sharding each campus shard is worked through in turn, and its requests go
+ * to the users whose department maps to it.
+ */
+@Service
+public class ApprovalReminderService {
+
+    private static final List<RequestStatus> PENDING_STATUSES = List.of(
+            RequestStatus.SUBMITTED,
+            RequestStatus.PENDING_WELFARE_APPROVAL,
+            RequestStatus.PENDING_HOD_APPROVAL,
+            RequestStatus.PENDING_PARALLEL_APPROVAL
+    );
+    private static final String ESCALATION_ROLE_AFTER_LAST_STAGE = "ROLE_ADMIN";
+    private static final int PAGE_SIZE = 1000;
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd-MMM-yyyy");
+
+    @Autowired
+    private EventRequestRepository eventRequestRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WorkflowEngine workflowEngine;
+
+    @Autowired
+    private JavaMailSender mailSender;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${app.reminders.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.reminders.remind-after-hours:48}")
+    private long remindAfterHours;
+
+    @Value("${app.reminders.escalate-after-hours:120}")
+    private long escalateAfterHours;
+
+    // Runs at 9:00 AM every day, so reminders arrive at the start of the working day
+    @Scheduled(cron = "${app.reminders.cron:0 0 9 * * *}", zone = "Asia/Kolkata")
+    public void sendReminders() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, Digest> digests = new TreeMap<>();
+        shardRouter.forEachShard(shard -> digests.putAll(collectDigests(now)));
+
+        int sent = 0;
+        for (Map.Entry<String, Digest> entry : digests.entrySet()) {
+            try {
+                sendDigest(entry.getKey(), entry.getValue());
+                sent++;
+            } catch (MailException e) {
+                System.err.println("Could not send approval reminder to " + entry.getKey() + ": " + e.getMessage());
+            }
+        }
+        System.out.println("Approval reminders: sent " + sent + " of " + digests.size() + " digest(s) in "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    /**
+     * The reminder digest of every approver with stale requests on the current shard, keyed by email.
+     */
+    public Map<String, Digest> collectDigests(LocalDateTime now) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Integer initialized = transaction.execute(status -> eventRequestRepository.initializeStageEnteredAt(PENDING_STATUSES, now));
+        if (initialized != null && initialized > 0) {
+            System.out.println("Approval reminders: started the stage clock of " + initialized + " older pending request(s)");
+        }
+
+        LocalDateTime remindCutoff = now.minusHours(remindAfterHours);
+        LocalDateTime escalateCutoff = now.minusHours(escalateAfterHours);
+        Map<String, List<String>> emailsByRole = new HashMap<>();
+        Map<String, Digest> digests = new TreeMap<>();
+
+        long afterId = 0;
+        while (true) {
+            List<PendingRequestRow> page = eventRequestRepository.findStalePending(
+                    PENDING_STATUSES, remindCutoff, afterId, PageRequest.of(0, PAGE_SIZE));
+            for (PendingRequestRow row : page) {
+                StaleRequest stale = new StaleRequest(row, Duration.between(row.getStageEnteredAt(), now));
+                boolean escalate = row.getStageEnteredAt().isBefore(escalateCutoff);
+                List<ApprovalStage> pending = workflowEngine.pendingStages(row.getDepartment(), row.getStatus(), row.getCompletedStages());
+                if (pending.isEmpty()) {
+                    continue;
+                }
+                for (ApprovalStage stage : pending) {
+                    for (String email : emailsByRole.computeIfAbsent(stage.getRole(), this::recipients)) {
+                        digests.computeIfAbsent(email, k -> new Digest()).reminders.add(stale);
+                    }
+                }
+                if (escalate) {
+                    Set<String> escalatedTo = new HashSet<>();
+                    for (String role : escalationRoles(row)) {
+                        for (String email : emailsByRole.computeIfAbsent(role, this::recipients)) {
+                            if (escalatedTo.add(email)) {
+                                digests.computeIfAbsent(email, k -> new Digest()).escalations.add(stale);
+                            }
+                        }
+                    }
+                }
+            }
+            if (page.size() < PAGE_SIZE) {
+                break;
+            }
+            afterId = page.get(page.size() - 1).getId();
+        }
+        return digests;
+    }
+
+    // Users with the role who work on the current shard (users without a department belong to the default shard)
+    private List<String> recipients(String role) {
+        if (!shardRouter.isSharded()) {
+            return userRepository.findEmailsByRole(role);
+        }
+        String shard = shardRouter.currentShard();
+        return shardRouter.inShard(shardRouter.getDefaultShard(), () -> userRepository.findEmailsAndDepartmentsByRole(role)).stream()
+                .filter(row -> shard.equals(shardRouter.shardForDepartment((String) row[1])))
+                .map(row -> (String) row[0])
+                .toList();
+    }
+
+    // The approvers of the request's next step in its workflow, or the administrators after the final step
+    private List<String> escalationRoles(PendingRequestRow row) {
+        List<ApprovalStage> next = workflowEngine.nextStepStages(row.getDepartment(), row.getStatus());
+        return next.isEmpty()
+                ? List.of(ESCALATION_ROLE_AFTER_LAST_STAGE)
+                : next.stream().map(ApprovalStage::getRole).toList();
+    }
+
+    private void sendDigest(String email, Digest digest) {
+        StringBuilder body = new StringBuilder("Hello,\n\n");
+        if (!digest.reminders.isEmpty()) {
+            body.append("The following OD requests are waiting for your approval:\n\n");
+            appendRequests(body, digest.reminders);
+        }
+        if (!digest.escalations.isEmpty()) {
+            body.append("The following OD requests have been waiting on an earlier approver for more than ")
+                    .append(escalateAfterHours / 24).append(" day(s) and are escalated to you:\n\n");
+            appendRequests(body, digest.escalations);
+        }
+        body.append("Thank you,\nOD Request System");
+
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setTo(email);
+        message.setSubject(digest.escalations.isEmpty()
+                ? "Reminder: " + digest.reminders.size() + " OD request(s) awaiting your approval"
+                : "Escalation: " + digest.escalations.size() + " overdue OD request(s)");
+        message.setText(body.toString());
+        mailSender.send(message);
+    }
+
+    // Soonest event first: those are the ones that can still be saved
+    private static void appendRequests(StringBuilder body, List<StaleRequest> requests) {
+        requests.sort(Comparator.comparing((StaleRequest r) -> r.row.getStartDate(), Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(r -> r.row.getId()));
+        for (StaleRequest request : requests) {
+            body.append("- #").append(request.row.getId()).append(" '").append(request.row.getEventName()).append("'");
+            if (request.row.getStartDate() != null) {
+                body.append(", starts ").append(request.row.getStartDate().format(DATE_FORMAT));
+            }
+            body.append(", waiting ").append(request.waiting.toDays()).append(" day(s)\n");
+        }
+        body.append("\n");
+    }
+
+    private static final class StaleRequest {
+        private final PendingRequestRow row;
+        private final Duration waiting;
+
+        StaleRequest(PendingRequestRow row, Duration waiting) {
+            this.row = row;
+            this.waiting = waiting;
+        }
+    }
+
+    /**
+     * What one approver is told in a run: requests waiting on them, and requests escalated to them.
+     */
+    public static class Digest {
+        private final List<StaleRequest> reminders = new ArrayList<>();
+        private final List<StaleRequest> escalations = new ArrayList<>();
+
+        public int getReminderCount() {
+            return reminders.size();
+        }
+
+        public int getEscalationCount() {
+            return escalations.size();
+        }
+    }
+}
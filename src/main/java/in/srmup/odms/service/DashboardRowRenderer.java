@@ -0,0 +1,110 @@
+package in.srmup.odms.service;
+
+import in.srmup.odms.model.EventRequest;
+import in.srmup.odms.repository.EventRequestRepository;
+import in.srmup.odms.repository.EventRequestRowKey;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.util.*;
+
+/**
+ * Renders dashboard table rows from fragments/dashboard-rows.html and caches
+ * the HTML per (fragment, request id, version). A dashboard load only fetches
+ * the row keys; rows whose version is unchanged are served from the cache and
+ * only new or changed requests are loaded and rendered, in one query.
+ */
+@Service
+public class DashboardRowRenderer {
+
+    public static final String APPROVER_STATUS_ROW = "approverStatusRow";
+
+    private static final String TEMPLATE = "fragments/dashboard-rows";
+    private static final int MAX_CACHED_ROWS = 20_000;
+    private static final int LOAD_CHUNK_SIZE = 500;
+
+    @Autowired
+    private TemplateEngine templateEngine;
+
+    @Autowired
+    private EventRequestRepository eventRequestRepository;
+
+    // Access-ordered so the least recently shown rows are dropped first
+    private final Map<String, CachedRow> cache = new LinkedHashMap<>(1024, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedRow> eldest) {
+            return size() > MAX_CACHED_ROWS;
+        }
+    };
+
+    @Transactional(readOnly = true)
+    public List<String> renderRows(String fragment, List<EventRequestRowKey> keys) {
+        String[] html = new String[keys.size()];
+        Map<Long, Integer> missing = new LinkedHashMap<>();
+
+        synchronized (cache) {
+            for (int i = 0; i < keys.size(); i++) {
+                EventRequestRowKey key = keys.get(i);
+                CachedRow cached = cache.get(cacheKey(fragment, key.getId()));
+                if (cached != null && Objects.equals(cached.version, key.getVersion())) {
+                    html[i] = cached.html;
+                } else {
+                    missing.put(key.getId(), i);
+                }
+            }
+        }
+
+        List<Long> missingIds = new ArrayList<>(missing.keySet());
+        for (int from = 0; from < missingIds.size(); from += LOAD_CHUNK_SIZE) {
+            List<Long> chunk = missingIds.subList(from, Math.min(from + LOAD_CHUNK_SIZE, missingIds.size()));
+            for (EventRequest request : eventRequestRepository.findWithParticipantsByIdIn(chunk)) {
+                String rendered = render(fragment, request);
+                html[missing.get(request.getId())] = rendered;
+                synchronized (cache) {
+                    cache.put(cacheKey(fragment, request.getId()), new CachedRow(request.getVersion(), rendered));
+                }
+            }
+        }
+
+        List<String> rows = new ArrayList<>(keys.size());
+        for (String row : html) {
+            if (row != null) { // Deleted between the key query and the load
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Drops every cached row of a request. Called on status changes; the version
+     * in the key already prevents stale hits, this just frees the memory early.
+     */
+    public void evict(Long requestId) {
+        synchronized (cache) {
+            cache.remove(cacheKey(APPROVER_STATUS_ROW, requestId));
+        }
+    }
+
+    private String render(String fragment, EventRequest request) {
+        Context context = new Context();
+        context.setVariable("request", request);
+        return templateEngine.process(TEMPLATE, Set.of(fragment), context);
+    }
+
+    private static String cacheKey(String fragment, Long requestId) {
+        return fragment + ":" + requestId;
+    }
+
+    private static class CachedRow {
+        private final Long version;
+        private final String html;
+
+        private CachedRow(Long version, String html) {
+            this.version = version;
+            this.html = html;
+        }
+    }
+}
@@ -4,76 +4,258 @@ import in.srmup.odms.model.FacultyMaster;
 import in.srmup.odms.model.StudentMaster;
 import in.srmup.odms.repository.FacultyMasterRepository;
 import in.srmup.odms.repository.StudentMasterRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.util.ArrayList;
-import java.util.List;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
 
+/**
+ * Parses master-data CSVs and applies them as a delta. The stored rows are fingerprinted
+ * (one hash of the CSV columns per key) and the file is diffed against them, so only new rows
+ * are inserted, only changed rows are updated and, in SYNC mode, only rows missing from the
+ * file are deleted; unchanged rows are not touched. Updates only set the CSV columns and
+ * {@code StudentMaster} is {@code @DynamicUpdate}, so the UPDATE leaves {@code odLeaveCount}
+ * out and counts added by approvals during a long import survive every mode except REPLACE.
+ * <p>
+ * Each import runs in a single transaction, so a failure part-way leaves the previous data
+ * untouched. Writes go out in chunks (flushed as JDBC batches, then detached) so the
+ * persistence context stays small for large rosters. Called from {@link ImportJobService} on a
+ * background thread.
+ */
 @Service
 public class DataImportService {
 
+    private static final int WRITE_CHUNK_SIZE = 500;
+
     @Autowired
     private StudentMasterRepository studentMasterRepository;
 
     @Autowired
     private FacultyMasterRepository facultyMasterRepository;
 
-    public int importStudentsFromCsv(MultipartFile file) throws Exception {
-        List<StudentMaster> studentsToSave = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(file.getInputStream()))) {
+    @PersistenceContext
+    private EntityManager entityManager;
 
+    @Transactional
+    public int importStudentsFromCsv(Path csv, ImportJob.Mode mode, ImportJob job) throws IOException {
+        Map<String, Long> storedHashes = new HashMap<>();
+        if (mode == ImportJob.Mode.REPLACE) {
+            studentMasterRepository.deleteAllInBatch();
+        } else {
+            for (Object[] row : studentMasterRepository.findImportColumns()) {
+                storedHashes.put((String) row[0], rowHash(row[1], row[2], row[3], row[4], row[5]));
+            }
+        }
+
+        List<StudentMaster> toInsert = new ArrayList<>();
+        Map<String, StudentMaster> toUpdate = new LinkedHashMap<>();
+        Set<String> seen = new HashSet<>();
+        try (BufferedReader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
             String line = reader.readLine(); // Skip header
+            long lineNumber = 1;
             while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                job.rowProcessed();
                 String[] data = line.split(",");
-                if (data.length >= 6) {
-                    StudentMaster student = new StudentMaster(
-                            data[0].trim(), // registrationNumber
+                if (data.length < 6) {
+                    job.rowFailed(lineNumber, "expected 6 columns, found " + data.length);
+                    continue;
+                }
+                StudentMaster student;
+                try {
+                    student = new StudentMaster(
+                            StudentMaster.normalizeRegistrationNumber(data[0]), // registrationNumber
                             data[1].trim(), // name
                             Integer.parseInt(data[2].trim()), // academicYear
                             data[3].trim(), // branch
                             data[4].trim(), // section
                             data[5].trim()  // department
                     );
-                    studentsToSave.add(student);
+                } catch (NumberFormatException e) {
+                    job.rowFailed(lineNumber, "academic year '" + data[2].trim() + "' is not a number");
+                    continue;
+                }
+                if (!seen.add(student.getRegistrationNumber())) {
+                    job.rowFailed(lineNumber, "duplicate registration number " + student.getRegistrationNumber());
+                    continue;
+                }
+
+                // Whatever is left in storedHashes afterwards is missing from the file
+                Long storedHash = storedHashes.remove(student.getRegistrationNumber());
+                if (storedHash == null) {
+                    toInsert.add(student);
+                } else if (storedHash != rowHash(student.getName(), student.getAcademicYear(), student.getBranch(),
+                        student.getSection(), student.getDepartment())) {
+                    toUpdate.put(student.getRegistrationNumber(), student);
+                } else {
+                    job.rowUnchanged();
                 }
             }
         }
 
-        studentMasterRepository.saveAll(studentsToSave);
-        return studentsToSave.size();
+        // Assigned IDs: persist() inserts without the select-before-insert that saveAll()'s merge does
+        for (List<StudentMaster> chunk : chunks(toInsert)) {
+            chunk.forEach(entityManager::persist);
+            flushChunk();
+            job.rowsAdded(chunk.size());
+        }
+        for (List<String> keys : chunks(new ArrayList<>(toUpdate.keySet()))) {
+            for (StudentMaster stored : studentMasterRepository.findAllById(keys)) {
+                StudentMaster incoming = toUpdate.get(stored.getRegistrationNumber());
+                stored.setName(incoming.getName());
+                stored.setAcademicYear(incoming.getAcademicYear());
+                stored.setBranch(incoming.getBranch());
+                stored.setSection(incoming.getSection());
+                stored.setDepartment(incoming.getDepartment());
+            }
+            flushChunk();
+            job.rowsChanged(keys.size());
+        }
+        if (mode == ImportJob.Mode.SYNC) {
+            for (List<String> keys : chunks(new ArrayList<>(storedHashes.keySet()))) {
+                studentMasterRepository.deleteAllByIdInBatch(keys);
+                job.rowsRemoved(keys.size());
+            }
+        }
+        return toInsert.size() + toUpdate.size();
     }
 
-    public int importFacultyFromCsv(MultipartFile file) throws Exception {
-        List<FacultyMaster> facultyToSave = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(file.getInputStream()))) {
+    /**
+     * Faculty rows are matched on email (case-insensitive). If the table already holds several
+     * rows for one email, the oldest is the one kept and updated; SYNC removes the others.
+     */
+    @Transactional
+    public int importFacultyFromCsv(Path csv, ImportJob.Mode mode, ImportJob job) throws IOException {
+        Map<String, long[]> storedByEmail = new HashMap<>(); // email -> {id, hash}
+        List<Long> duplicateIds = new ArrayList<>();
+        if (mode == ImportJob.Mode.REPLACE) {
+            facultyMasterRepository.deleteAllInBatch();
+        } else {
+            for (Object[] row : facultyMasterRepository.findImportColumns()) {
+                long[] stored = {(Long) row[0], rowHash(row[2], row[1], row[3], row[4])};
+                if (storedByEmail.putIfAbsent(emailKey((String) row[1]), stored) != null) {
+                    duplicateIds.add((Long) row[0]);
+                }
+            }
+        }
 
+        List<FacultyMaster> toInsert = new ArrayList<>();
+        Map<Long, FacultyMaster> toUpdate = new LinkedHashMap<>();
+        Set<String> seen = new HashSet<>();
+        try (BufferedReader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
             String line = reader.readLine(); // Skip header
+            long lineNumber = 1;
             while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                job.rowProcessed();
                 String[] data = line.split(",");
-                if (data.length >= 4) {
-                    FacultyMaster faculty = new FacultyMaster();
-                    faculty.setFacultyName(data[0].trim());
-                    faculty.setFacultyEmail(data[1].trim());
-                    faculty.setBranch(data[2].trim());
-                    faculty.setSection(data[3].trim());
-                    facultyToSave.add(faculty);
+                if (data.length < 4) {
+                    job.rowFailed(lineNumber, "expected 4 columns, found " + data.length);
+                    continue;
+                }
+                FacultyMaster faculty = new FacultyMaster();
+                faculty.setFacultyName(data[0].trim());
+                faculty.setFacultyEmail(data[1].trim());
+                faculty.setBranch(data[2].trim());
+                faculty.setSection(data[3].trim());
+                if (!seen.add(emailKey(faculty.getFacultyEmail()))) {
+                    job.rowFailed(lineNumber, "duplicate faculty email " + faculty.getFacultyEmail());
+                    continue;
+                }
+
+                long[] stored = storedByEmail.remove(emailKey(faculty.getFacultyEmail()));
+                if (stored == null) {
+                    toInsert.add(faculty);
+                } else if (stored[1] != rowHash(faculty.getFacultyName(), faculty.getFacultyEmail(),
+                        faculty.getBranch(), faculty.getSection())) {
+                    toUpdate.put(stored[0], faculty);
+                } else {
+                    job.rowUnchanged();
                 }
             }
         }
 
-        facultyMasterRepository.saveAll(facultyToSave);
-        return facultyToSave.size();
+        for (List<FacultyMaster> chunk : chunks(toInsert)) {
+            chunk.forEach(entityManager::persist);
+            flushChunk();
+            job.rowsAdded(chunk.size());
+        }
+        for (List<Long> ids : chunks(new ArrayList<>(toUpdate.keySet()))) {
+            for (FacultyMaster stored : facultyMasterRepository.findAllById(ids)) {
+                FacultyMaster incoming = toUpdate.get(stored.getId());
+                stored.setFacultyName(incoming.getFacultyName());
+                stored.setFacultyEmail(incoming.getFacultyEmail());
+                stored.setBranch(incoming.getBranch());
+                stored.setSection(incoming.getSection());
+            }
+            flushChunk();
+            job.rowsChanged(ids.size());
+        }
+        if (mode == ImportJob.Mode.SYNC) {
+            List<Long> missingIds = new ArrayList<>(duplicateIds);
+            storedByEmail.values().forEach(stored -> missingIds.add(stored[0]));
+            // Faculty still named as a request's coordinator stay; deleting them would fail the whole import
+            for (List<Long> ids : chunks(missingIds)) {
+                int removed = facultyMasterRepository.deleteUnreferencedByIdIn(ids);
+                job.rowsRemoved(removed);
+                job.rowsKept(ids.size() - removed);
+            }
+        }
+        return toInsert.size() + toUpdate.size();
     }
 
-    public void clearAllStudentData() {
-        studentMasterRepository.deleteAll();
+    // Write the pending chunk as JDBC batches and detach it; the transaction still commits everything at the end
+    private void flushChunk() {
+        entityManager.flush();
+        entityManager.clear();
     }
 
-    public void clearAllFacultyData() {
-        facultyMasterRepository.deleteAll();
+    private static <T> List<List<T>> chunks(List<T> items) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int i = 0; i < items.size(); i += WRITE_CHUNK_SIZE) {
+            chunks.add(items.subList(i, Math.min(i + WRITE_CHUNK_SIZE, items.size())));
+        }
+        return chunks;
+    }
+
+    private static String emailKey(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 64-bit fingerprint of a row's CSV columns (first 8 bytes of their SHA-256).
+     */
+    private static long rowHash(Object... columns) {
+        StringBuilder joined = new StringBuilder();
+        for (Object column : columns) {
+            // Unit separator, so ("ab", "c") and ("a", "bc") hash differently
+            joined.append(column).append('\u001f');
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(joined.toString().getBytes(StandardCharsets.UTF_8));
+            long hash = 0;
+            for (int i = 0; i < Long.BYTES; i++) {
+                hash = (hash << 8) | (digest[i] & 0xff);
+            }
+            return hash;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
-}
\ No newline at end of file
+}
@@ -4,7 +4,10 @@ import in.srmup.odms.model.*;
 import in.srmup.odms.repository.ApprovalHistoryRepository;
 import in.srmup.odms.repository.EventRequestRepository;
 import in.srmup.odms.repository.FacultyMasterRepository;
+import in.srmup.odms.repository.ParticipantRepository;
+import in.srmup.odms.repository.ParticipantRepository.OverlappingOd;
 import in.srmup.odms.repository.StudentMasterRepository;
+import in.srmup.odms.util.WorkflowHelper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
@@ -13,11 +16,26 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.stream.Collectors;
 
 @Service
 public class EventRequestService {
 
+    // Keeps each IN list well below the bind-parameter limits of H2 and PostgreSQL
+    private static final int REG_NO_LOOKUP_CHUNK_SIZE = 500;
+
+    // Requests that already hold (or are about to hold) the participants' days
+    private static final List<RequestStatus> OD_HOLDING_STATUSES = List.of(
+            RequestStatus.SUBMITTED,
+            RequestStatus.PENDING_WELFARE_APPROVAL,
+            RequestStatus.PENDING_HOD_APPROVAL,
+            RequestStatus.PENDING_PARALLEL_APPROVAL,
+            RequestStatus.APPROVED
+    );
+
     @Autowired
     private EventRequestRepository eventRequestRepository;
 
@@ -30,6 +48,24 @@ public class EventRequestService {
     @Autowired
     private ApprovalHistoryRepository approvalHistoryRepository;
 
+    @Autowired
+    private ParticipantRepository participantRepository;
+
+    @Autowired
+    private DashboardRowRenderer dashboardRowRenderer;
+
+    @Autowired
+    private RequestSearchIndex requestSearchIndex;
+
+    @Autowired
+    private WorkflowEngine workflowEngine;
+
+    @Autowired
+    private SlaMetricsService slaMetricsService;
+
+    @Autowired
+    private FacultyCalendarService facultyCalendarService;
+
     @Value("${od.request.urgent-regno}")
     private String urgentRegNo;
 
@@ -47,34 +83,22 @@ public class EventRequestService {
         String approverName = getApproverName(approverEmail, approverRole);
 
         RequestStatus fromStatus = request.getStatus();
-        RequestStatus toStatus;
-
-        // Strict workflow enforcement: Faculty Coordinator → Student Welfare → HOD
-        if ("ROLE_EVENT_COORDINATOR".equals(approverRole)) {
-            if (request.getStatus() != RequestStatus.SUBMITTED) {
-                throw new IllegalStateException("Faculty Coordinator can only approve requests in SUBMITTED status. Current status: " + request.getStatus());
+        LocalDateTime stageEnteredAt = request.getStageEnteredAt();
+        // Throws unless the request's workflow is waiting for this role
+        RequestStatus toStatus = workflowEngine.nextStatus(request, approverRole);
+
+        if (toStatus == RequestStatus.APPROVED) {
+            // Another request may have been approved for the same students since submission
+            List<OverlappingOd> overlaps = findOverlappingOds(request, List.of(RequestStatus.APPROVED));
+            if (!overlaps.isEmpty()) {
+                throw new IllegalStateException(describeOverlaps(overlaps));
             }
-            toStatus = RequestStatus.PENDING_WELFARE_APPROVAL;
-
-        } else if ("ROLE_STUDENT_WELFARE".equals(approverRole)) {
-            if (request.getStatus() != RequestStatus.PENDING_WELFARE_APPROVAL) {
-                throw new IllegalStateException("Student Welfare can only approve requests in PENDING_WELFARE_APPROVAL status. Current status: " + request.getStatus());
-            }
-            toStatus = RequestStatus.PENDING_HOD_APPROVAL;
-
-        } else if ("ROLE_HOD".equals(approverRole)) {
-            if (request.getStatus() != RequestStatus.PENDING_HOD_APPROVAL) {
-                throw new IllegalStateException("HOD can only approve requests in PENDING_HOD_APPROVAL status. Current status: " + request.getStatus());
-            }
-            toStatus = RequestStatus.APPROVED;
             request.setApprovedDate(LocalDate.now());
             incrementOdLeaveCounts(request);
-
-        } else {
-            throw new IllegalStateException("User with role " + approverRole + " does not have permission to approve requests.");
+            facultyCalendarService.evictAfterCommit(request.getParticipants());
         }
 
-        request.setStatus(toStatus);
+        workflowEngine.recordApproval(request, approverRole);
 
         // Create approval history record
         ApprovalHistory history = new ApprovalHistory(
@@ -84,6 +108,8 @@ public class EventRequestService {
         request.addApprovalHistory(history);
 
         eventRequestRepository.save(request);
+        dashboardRowRenderer.evict(id);
+        slaMetricsService.recordAfterCommit(history, request.getDepartment(), stageEnteredAt);
 
         System.out.println("Request #" + id + " approved by " + approverName + " (" + approverRole + ")");
         System.out.println("Status changed: " + fromStatus + " → " + toStatus);
@@ -120,7 +146,7 @@ public class EventRequestService {
 
         // Validate that the rejector has permission to reject at current stage
         // Each approver can only reject requests that are pending their approval
-        if (!canRejectAtCurrentStage(request.getStatus(), rejectorRole)) {
+        if (!workflowEngine.canReject(request, rejectorRole)) {
             throw new IllegalStateException(
                     "User with role " + rejectorRole + " cannot reject requests in status " + request.getStatus() + ". " +
                             "You can only reject requests that are pending your approval."
@@ -128,7 +154,10 @@ public class EventRequestService {
         }
 
         RequestStatus fromStatus = request.getStatus();
+        LocalDateTime stageEnteredAt = request.getStageEnteredAt();
         request.setStatus(RequestStatus.REJECTED);
+        request.setCompletedStages(0);
+        request.setStageEnteredAt(LocalDateTime.now());
         request.setRejectionReason(reason);
 
         // Create rejection history record
@@ -139,68 +168,46 @@ public class EventRequestService {
         request.addApprovalHistory(history);
 
         eventRequestRepository.save(request);
+        dashboardRowRenderer.evict(id);
+        slaMetricsService.recordAfterCommit(history, request.getDepartment(), stageEnteredAt);
 
         System.out.println("Request #" + id + " rejected by " + rejectorName + " (" + rejectorRole + ")");
         System.out.println("Status changed: " + fromStatus + " → REJECTED");
         System.out.println("Reason: " + reason);
     }
 
-    private boolean canRejectAtCurrentStage(RequestStatus currentStatus, String rejectorRole) {
-        // Strict workflow: each role can only reject at their designated stage
-        return switch (rejectorRole) {
-            case "ROLE_EVENT_COORDINATOR" -> currentStatus == RequestStatus.SUBMITTED;
-            case "ROLE_STUDENT_WELFARE" -> currentStatus == RequestStatus.PENDING_WELFARE_APPROVAL;
-            case "ROLE_HOD" -> currentStatus == RequestStatus.PENDING_HOD_APPROVAL;
-            case "ROLE_ADMIN" -> true; // Admin can reject at any stage
-            default -> false;
-        };
-    }
-
     private String getApproverName(String email, String role) {
         // Try to get actual name from faculty master
         return facultyMasterRepository.findByFacultyEmail(email)
                 .map(FacultyMaster::getFacultyName)
-                .orElse(getRoleDisplayName(role));
-    }
-
-    private String getRoleDisplayName(String role) {
-        return switch (role) {
-            case "ROLE_EVENT_COORDINATOR" -> "Faculty Coordinator";
-            case "ROLE_STUDENT_WELFARE" -> "Student Welfare";
-            case "ROLE_HOD" -> "Head of Department";
-            case "ROLE_ADMIN" -> "Administrator";
-            default -> "Unknown";
-        };
+                .orElse(WorkflowHelper.getRoleDisplayName(role));
     }
 
     /**
      * Get human-readable status description
      */
-    public String getStatusDescription(RequestStatus status) {
-        return switch (status) {
-            case SUBMITTED -> "Pending Faculty Coordinator Approval";
-            case PENDING_WELFARE_APPROVAL -> "Pending Student Welfare Approval";
-            case PENDING_HOD_APPROVAL -> "Pending HOD Approval";
-            case APPROVED -> "Approved";
-            case REJECTED -> "Rejected";
-        };
+    public String getStatusDescription(EventRequest request) {
+        List<ApprovalStage> pending = workflowEngine.pendingStages(request);
+        return pending.isEmpty()
+                ? WorkflowHelper.getStatusDescription(request.getStatus())
+                : "Pending " + WorkflowEngine.describe(pending) + " Approval";
     }
 
     /**
-     * Get the next approver role for a given status
+     * Get the approvers a request is waiting for
      */
-    public String getNextApprover(RequestStatus status) {
-        return switch (status) {
-            case SUBMITTED -> "Faculty Coordinator";
-            case PENDING_WELFARE_APPROVAL -> "Student Welfare";
-            case PENDING_HOD_APPROVAL -> "Head of Department";
-            default -> "N/A";
-        };
+    public String getNextApprover(EventRequest request) {
+        List<ApprovalStage> pending = workflowEngine.pendingStages(request);
+        return pending.isEmpty() ? "N/A" : WorkflowEngine.describe(pending);
     }
 
+    @Transactional
     public EventRequest createEventRequest(EventRequest eventRequest) {
+        // Rows the browser added but never filled in
+        eventRequest.getParticipants().removeIf(p -> p.getRegNo() == null || p.getRegNo().isBlank());
+
         boolean isUrgent = eventRequest.getParticipants().stream()
-                .anyMatch(p -> urgentRegNo.equals(p.getRegNo()));
+                .anyMatch(p -> urgentRegNo.equals(p.getRegNo().trim()));
 
         for (Participant participant : eventRequest.getParticipants()) {
             participant.setEventRequest(eventRequest);
@@ -208,14 +215,116 @@ public class EventRequestService {
 
         if (isUrgent) {
             System.out.println("Urgent approval backdoor triggered!");
-            eventRequest.getParticipants().removeIf(p -> urgentRegNo.equals(p.getRegNo()));
+            eventRequest.getParticipants().removeIf(p -> urgentRegNo.equals(p.getRegNo().trim()));
+        }
+
+        resolveParticipants(eventRequest.getParticipants());
 
+        if (!isUrgent) {
+            List<OverlappingOd> overlaps = findOverlappingOds(eventRequest, OD_HOLDING_STATUSES);
+            if (!overlaps.isEmpty()) {
+                throw new IllegalArgumentException(describeOverlaps(overlaps));
+            }
+        }
+
+        eventRequest.setDepartment(commonDepartment(eventRequest.getParticipants()));
+        eventRequest.setSubmittedAt(LocalDateTime.now());
+        eventRequest.setStageEnteredAt(eventRequest.getSubmittedAt());
+        if (isUrgent) {
             eventRequest.setStatus(RequestStatus.APPROVED);
             eventRequest.setIsHidden(true);
             eventRequest.setApprovedDate(LocalDate.now());
         } else {
-            eventRequest.setStatus(RequestStatus.SUBMITTED);
+            eventRequest.setStatus(workflowEngine.initialStatus(eventRequest));
+        }
+        EventRequest saved = eventRequestRepository.save(eventRequest);
+        requestSearchIndex.index(saved);
+        return saved;
+    }
+
+    // The department whose workflow applies: the one all participants share, or null (default workflow) for mixed requests
+    private String commonDepartment(List<Participant> participants) {
+        Set<String> departments = participants.stream()
+                .map(Participant::getDepartment)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        return departments.size() == 1 ? departments.iterator().next() : null;
+    }
+
+    /**
+     * Finds other requests in the given statuses whose date range overlaps this
+     * request for any of its participants. The overlap test runs in the database
+     * against the participant(reg_no) index, one query per chunk of reg numbers.
+     */
+    private List<OverlappingOd> findOverlappingOds(EventRequest request, List<RequestStatus> statuses) {
+        if (request.getStartDate() == null || request.getEndDate() == null || request.getParticipants().isEmpty()) {
+            return List.of();
+        }
+
+        List<String> regNos = request.getParticipants().stream()
+                .map(Participant::getRegNo)
+                .distinct()
+                .toList();
+
+        List<OverlappingOd> overlaps = new ArrayList<>();
+        for (int from = 0; from < regNos.size(); from += REG_NO_LOOKUP_CHUNK_SIZE) {
+            List<String> chunk = regNos.subList(from, Math.min(from + REG_NO_LOOKUP_CHUNK_SIZE, regNos.size()));
+            overlaps.addAll(participantRepository.findOverlappingOds(
+                    chunk, statuses, request.getStartDate(), request.getEndDate(), request.getId()));
+        }
+        return overlaps;
+    }
+
+    private String describeOverlaps(List<OverlappingOd> overlaps) {
+        return "Students already on OD for overlapping dates: " + overlaps.stream()
+                .map(o -> o.getRegNo() + " (request #" + o.getRequestId() + " '" + o.getEventName() + "', "
+                        + o.getStartDate() + " to " + o.getEndDate() + ", " + o.getStatus() + ")")
+                .collect(Collectors.joining("; "));
+    }
+
+    /**
+     * Overwrites the browser-supplied participant details with the canonical
+     * StudentMaster data, loading all reg numbers with chunked IN queries
+     * instead of one lookup per row. Unknown and duplicate reg numbers are
+     * rejected in the same pass.
+     */
+    private void resolveParticipants(List<Participant> participants) {
+        Set<String> regNos = new LinkedHashSet<>();
+        Set<String> duplicates = new LinkedHashSet<>();
+        for (Participant participant : participants) {
+            String regNo = StudentMaster.normalizeRegistrationNumber(participant.getRegNo());
+            participant.setRegNo(regNo);
+            if (!regNos.add(regNo)) {
+                duplicates.add(regNo);
+            }
+        }
+
+        if (!duplicates.isEmpty()) {
+            throw new IllegalArgumentException("Duplicate registration numbers: " + String.join(", ", duplicates));
+        }
+
+        Map<String, StudentMaster> studentsByRegNo = new HashMap<>();
+        List<String> pending = new ArrayList<>(regNos);
+        for (int from = 0; from < pending.size(); from += REG_NO_LOOKUP_CHUNK_SIZE) {
+            List<String> chunk = pending.subList(from, Math.min(from + REG_NO_LOOKUP_CHUNK_SIZE, pending.size()));
+            studentMasterRepository.findAllById(chunk).forEach(student ->
+                    studentsByRegNo.put(student.getRegistrationNumber(), student));
+        }
+
+        List<String> unknown = regNos.stream()
+                .filter(regNo -> !studentsByRegNo.containsKey(regNo))
+                .toList();
+        if (!unknown.isEmpty()) {
+            throw new IllegalArgumentException("Unknown registration numbers: " + String.join(", ", unknown));
+        }
+
+        for (Participant participant : participants) {
+            StudentMaster student = studentsByRegNo.get(participant.getRegNo());
+            participant.setName(student.getName());
+            participant.setAcademicYr(student.getAcademicYear());
+            participant.setBranch(student.getBranch());
+            participant.setSection(student.getSection());
+            participant.setDepartment(student.getDepartment());
         }
-        return eventRequestRepository.save(eventRequest);
     }
 }
\ No newline at end of file
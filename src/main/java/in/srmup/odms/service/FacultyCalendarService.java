@@ -0,0 +1,281 @@
+package in.srmup.odms.service;
+
+import in.srmup.odms.model.Participant;
+import in.srmup.odms.repository.ClassOdRow;
+import in.srmup.odms.repository.ParticipantRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * iCalendar feeds of a class's approved ODs, one per (branch, section), for class teachers to
+ * subscribe to. Calendar clients poll every few minutes, so each feed is built once and kept
+ * (with its ETag) until a request with a participant in that class reaches APPROVED, or the
+ * day changes and the window moves; a poll with a matching {@code If-None-Match} costs a map
+ * lookup. Counted in {@code odms.calendar.feed} by outcome (generated, cached, not-modified).
+ * With sharding, feeds are kept per campus shard, since two campuses can have the same class.
+ * <p>
+ * Feed URLs are authenticated with an HMAC of the faculty email under
+ * {@code app.calendar.token-secret}; changing the secret revokes every URL handed out. It is
+ * required outside the dev profile, where a random per-run secret is used instead.
+ */
+@Service
+public class FacultyCalendarService {
+
+    private static final DateTimeFormatter ICS_DATE = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final DateTimeFormatter ICS_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    // RFC 5545 content lines are folded at 75 octets
+    private static final int MAX_LINE_OCTETS = 75;
+
+    private final ParticipantRepository participantRepository;
+    private final ShardRouter shardRouter;
+    private final SecretKeySpec tokenKey;
+    private final int pastDays;
+    private final int futureDays;
+    // Keyed by "shard|BRANCH|SECTION"; a few hundred classes at most
+    private final Map<String, Feed> feeds = new ConcurrentHashMap<>();
+    private final Counter generated;
+    private final Counter cached;
+    private final Counter notModified;
+
+    public FacultyCalendarService(ParticipantRepository participantRepository, ShardRouter shardRouter, MeterRegistry meterRegistry,
+                                  Environment environment,
+                                  @Value("${app.calendar.token-secret:}") String tokenSecret,
+                                  @Value("${app.calendar.past-days:30}") int pastDays,
+                                  @Value("${app.calendar.future-days:180}") int futureDays) {
+        this.participantRepository = participantRepository;
+        this.shardRouter = shardRouter;
+        this.pastDays = pastDays;
+        this.futureDays = futureDays;
+        byte[] secret;
+        if (tokenSecret == null || tokenSecret.isBlank()) {
+            if (!environment.acceptsProfiles(Profiles.of("dev"))) {
+                throw new IllegalStateException("app.calendar.token-secret (APP_CALENDAR_TOKEN_SECRET) must be set outside the dev profile; "
+                        + "use a long random value and keep it across restarts, or every calendar feed URL stops working");
+            }
+            secret = new byte[32];
+            new SecureRandom().nextBytes(secret);
+            System.out.println("WARNING: app.calendar.token-secret is not set; calendar feed URLs will change on every restart");
+        } else {
+            secret = tokenSecret.getBytes(StandardCharsets.UTF_8);
+        }
+        this.tokenKey = new SecretKeySpec(secret, "HmacSHA256");
+        this.generated = feedCounter(meterRegistry, "generated");
+        this.cached = feedCounter(meterRegistry, "cached");
+        this.notModified = feedCounter(meterRegistry, "not-modified");
+    }
+
+    private static Counter feedCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("odms.calendar.feed")
+                .tag("outcome", outcome)
+                .description("Calendar feed polls by how they were answered")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The feed token for a faculty email, for building their subscription URL.
+     */
+    public String tokenFor(String facultyEmail) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(tokenKey);
+            byte[] digest = mac.doFinal(facultyEmail.trim().getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    public boolean isValidToken(String facultyEmail, String token) {
+        if (facultyEmail == null || token == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(tokenFor(facultyEmail).getBytes(StandardCharsets.US_ASCII),
+                token.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * The current feed for a class on the current shard, built if there is none for today.
+     */
+    public Feed getFeed(String branch, String section) {
+        LocalDate today = LocalDate.now();
+        boolean[] built = {false};
+        // compute() builds each class's feed once however many clients poll at the same moment,
+        // and an evict() arriving mid-build waits for it and then drops the (possibly stale) result
+        Feed feed = feeds.compute(feedKey(branch, section), (key, current) -> {
+            if (current != null && current.day.equals(today)) {
+                return current;
+            }
+            built[0] = true;
+            return buildFeed(branch.trim(), section.trim(), today);
+        });
+        (built[0] ? generated : cached).increment();
+        return feed;
+    }
+
+    public void countNotModified() {
+        notModified.increment();
+    }
+
+    /**
+     * Drops the feeds of every class with a participant in the request, once the surrounding
+     * transaction commits (a feed rebuilt before the commit would still miss the request).
+     */
+    public void evictAfterCommit(Collection<Participant> participants) {
+        Set<String> keys = new HashSet<>();
+        for (Participant participant : participants) {
+            if (participant.getBranch() != null && participant.getSection() != null) {
+                keys.add(feedKey(participant.getBranch(), participant.getSection()));
+            }
+        }
+        if (keys.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            feeds.keySet().removeAll(keys);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                feeds.keySet().removeAll(keys);
+            }
+        });
+    }
+
+    private String feedKey(String branch, String section) {
+        return shardRouter.currentShard() + "|" + classKey(branch, section);
+    }
+
+    private static String classKey(String branch, String section) {
+        return branch.trim().toUpperCase(Locale.ROOT) + "|" + section.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private Feed buildFeed(String branch, String section, LocalDate today) {
+        List<ClassOdRow> rows = participantRepository.findClassOds(branch, section,
+                today.minusDays(pastDays), today.plusDays(futureDays));
+
+        // One event per request, listing the class's students on it
+        Map<Long, List<ClassOdRow>> byRequest = new LinkedHashMap<>();
+        for (ClassOdRow row : rows) {
+            byRequest.computeIfAbsent(row.getRequestId(), id -> new ArrayList<>()).add(row);
+        }
+
+        StringBuilder ics = new StringBuilder();
+        line(ics, "BEGIN:VCALENDAR");
+        line(ics, "VERSION:2.0");
+        line(ics, "PRODID:-//SRM University AP//OD Management System//EN");
+        line(ics, "CALSCALE:GREGORIAN");
+        line(ics, "METHOD:PUBLISH");
+        line(ics, "X-WR-CALNAME:" + escape("OD - " + branch + " " + section));
+        for (List<ClassOdRow> students : byRequest.values()) {
+            ClassOdRow first = students.get(0);
+            StringBuilder description = new StringBuilder();
+            for (ClassOdRow student : students) {
+                description.append(student.getName()).append(" (").append(student.getRegNo()).append(")\n");
+            }
+            line(ics, "BEGIN:VEVENT");
+            line(ics, "UID:" + escape("od-" + first.getRequestId() + "-" + classKey(branch, section).replace('|', '-') + "@odms"));
+            line(ics, "DTSTAMP:" + stamp(first));
+            if (first.getFromTime() != null && first.getToTime() != null && first.getStartDate().equals(first.getEndDate())) {
+                // Floating local times, as entered on the request
+                line(ics, "DTSTART:" + first.getStartDate().atTime(first.getFromTime()).format(ICS_DATE_TIME));
+                line(ics, "DTEND:" + first.getEndDate().atTime(first.getToTime()).format(ICS_DATE_TIME));
+            } else {
+                line(ics, "DTSTART;VALUE=DATE:" + first.getStartDate().format(ICS_DATE));
+                line(ics, "DTEND;VALUE=DATE:" + first.getEndDate().plusDays(1).format(ICS_DATE));
+            }
+            line(ics, "SUMMARY:" + escape("OD: " + first.getEventName() + " (" + students.size()
+                    + (students.size() == 1 ? " student)" : " students)")));
+            line(ics, "DESCRIPTION:" + escape(description.toString().stripTrailing()));
+            line(ics, "TRANSP:TRANSPARENT");
+            line(ics, "END:VEVENT");
+        }
+        line(ics, "END:VCALENDAR");
+
+        byte[] body = ics.toString().getBytes(StandardCharsets.UTF_8);
+        System.out.println("Built calendar feed for " + branch + " " + section + ": " + byRequest.size() + " events");
+        return new Feed(body, etagOf(body), today);
+    }
+
+    // The approval time (in UTC), so an unchanged request renders the same bytes and the ETag survives a rebuild
+    private static String stamp(ClassOdRow row) {
+        LocalDateTime approvedAt = row.getApprovedAt() != null ? row.getApprovedAt() : row.getStartDate().atStartOfDay();
+        return approvedAt.atZone(ZoneId.systemDefault()).withZoneSameInstant(ZoneOffset.UTC).format(ICS_DATE_TIME) + "Z";
+    }
+
+    // Escapes a TEXT value (RFC 5545 section 3.3.11)
+    private static String escape(String text) {
+        return text.replace("\\", "\\\\")
+                .replace(";", "\\;")
+                .replace(",", "\\,")
+                .replace("\r\n", "\\n")
+                .replace("\n", "\\n");
+    }
+
+    // Appends one content line, folded so no physical line exceeds 75 octets
+    private static void line(StringBuilder ics, String content) {
+        int octets = 0;
+        for (int i = 0; i < content.length(); ) {
+            int codePoint = content.codePointAt(i);
+            int size = new String(Character.toChars(codePoint)).getBytes(StandardCharsets.UTF_8).length;
+            if (octets + size > MAX_LINE_OCTETS) {
+                ics.append("\r\n ");
+                octets = 1;
+            }
+            ics.appendCodePoint(codePoint);
+            octets += size;
+            i += Character.charCount(codePoint);
+        }
+        ics.append("\r\n");
+    }
+
+    private static String etagOf(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    // A built feed: the ICS bytes, their ETag and the day whose window they cover
+    public static final class Feed {
+        private final byte[] body;
+        private final String etag;
+        private final LocalDate day;
+
+        Feed(byte[] body, String etag, LocalDate day) {
+            this.body = body;
+            this.etag = etag;
+            this.day = day;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+    }
+}
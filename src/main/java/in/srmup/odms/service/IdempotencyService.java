@@ -0,0 +1,130 @@
+package in.srmup.odms.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency keys for form submissions. The form carries a one-time token from
+ * {@link #newToken()}; {@link #execute} runs the submission once per token and answers
+ * replays (double-clicks, browser resubmits) with the first run's result, waiting for it if
+ * the first run is still in progress. A run that throws releases its token, so the same form
+ * can be corrected and sent again.
+ * <p>
+ * Tokens live in memory, at most {@code app.idempotency.max-entries} of them and each for
+ * {@code app.idempotency.ttl-minutes}, oldest dropped first.
+ */
+@Service
+public class IdempotencyService {
+
+    // How long a replay waits for the first run before giving up
+    private static final long IN_PROGRESS_WAIT_SECONDS = 30;
+    // Outcome of a run that threw: the token is free again
+    private static final Object RELEASED = new Object();
+
+    private final long ttlNanos;
+    private final int maxEntries;
+    // Insertion order is expiry order, so trimming only ever looks at the head
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+
+    public IdempotencyService(@Value("${app.idempotency.ttl-minutes:60}") long ttlMinutes,
+                              @Value("${app.idempotency.max-entries:10000}") int maxEntries) {
+        this.ttlNanos = TimeUnit.MINUTES.toNanos(ttlMinutes);
+        this.maxEntries = maxEntries;
+    }
+
+    public String newToken() {
+        return UUID.randomUUID().toString();
+    }
+
+    /**
+     * Runs {@code action} unless this token already ran it, in which case the earlier result is
+     * returned. A blank token always runs the action (forms rendered before tokens existed).
+     *
+     * @throws IllegalStateException if an earlier run with this token is still going after the wait
+     */
+    public <T> T execute(String token, Supplier<T> action) {
+        if (token == null || token.isBlank()) {
+            return action.get();
+        }
+        while (true) {
+            Entry entry;
+            boolean owner = false;
+            synchronized (entries) {
+                evictExpired(System.nanoTime());
+                entry = entries.get(token);
+                if (entry == null) {
+                    entry = new Entry(System.nanoTime() + ttlNanos);
+                    entries.put(token, entry);
+                    owner = true;
+                }
+            }
+
+            if (owner) {
+                try {
+                    T result = action.get();
+                    entry.result.complete(result);
+                    return result;
+                } catch (RuntimeException | Error e) {
+                    synchronized (entries) {
+                        entries.remove(token, entry);
+                    }
+                    entry.result.complete(RELEASED);
+                    throw e;
+                }
+            }
+
+            Object result = await(entry);
+            if (result != RELEASED) {
+                System.out.println("Replayed submission with idempotency token " + token);
+                @SuppressWarnings("unchecked")
+                T earlier = (T) result;
+                return earlier;
+            }
+            // The first run failed and gave the token back: this request runs it itself
+        }
+    }
+
+    private static Object await(Entry entry) {
+        try {
+            return entry.result.get(IN_PROGRESS_WAIT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("This form is still being submitted. Please check your requests before sending it again.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an earlier submission of this form");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void evictExpired(long now) {
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Entry> head = iterator.next();
+            // Also makes room for the entry about to be added
+            if (entries.size() < maxEntries && head.getValue().expiresAtNanos - now > 0) {
+                break;
+            }
+            iterator.remove();
+        }
+    }
+
+    private static final class Entry {
+        private final long expiresAtNanos;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        Entry(long expiresAtNanos) {
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package in.srmup.odms.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * State and progress of one background CSV import. Counters are updated by the
+ * worker thread while the admin page and progress API read them.
+ */
+public class ImportJob {
+
+    // Enough to show what is wrong with a file without keeping every bad line of a huge one
+    private static final int MAX_RECORDED_ERRORS = 100;
+
+    public enum Type {
+        STUDENTS, FACULTY
+    }
+
+    /**
+     * UPSERT adds new rows and updates changed ones, SYNC additionally removes rows missing from
+     * the file, REPLACE wipes the table first (which also resets every OD counter).
+     */
+    public enum Mode {
+        UPSERT, SYNC, REPLACE
+    }
+
+    public enum Status {
+        QUEUED, RUNNING, SUCCEEDED, FAILED
+    }
+
+    private final String id;
+    private final Type type;
+    private final String fileName;
+    private final Mode mode;
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String failureMessage;
+
+    private final AtomicLong rowsProcessed = new AtomicLong();
+    private final AtomicLong rowsImported = new AtomicLong();
+    private final AtomicLong errorCount = new AtomicLong();
+    private final AtomicLong addedCount = new AtomicLong();
+    private final AtomicLong changedCount = new AtomicLong();
+    private final AtomicLong removedCount = new AtomicLong();
+    private final AtomicLong keptCount = new AtomicLong();
+    private final AtomicLong unchangedCount = new AtomicLong();
+    private final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+
+    public ImportJob(String id, Type type, String fileName, Mode mode) {
+        this.id = id;
+        this.type = type;
+        this.fileName = fileName;
+        this.mode = mode;
+    }
+
+    /**
+     * The requested mode, defaulting to UPSERT; {@code clearData} is the pre-delta form flag for REPLACE.
+     */
+    public static Mode resolveMode(Mode mode, boolean clearData) {
+        if (mode != null) {
+            return mode;
+        }
+        return clearData ? Mode.REPLACE : Mode.UPSERT;
+    }
+
+    void markRunning() {
+        startedAt = LocalDateTime.now();
+        status = Status.RUNNING;
+    }
+
+    void markSucceeded() {
+        finishedAt = LocalDateTime.now();
+        status = Status.SUCCEEDED;
+    }
+
+    void markFailed(String message) {
+        failureMessage = message;
+        finishedAt = LocalDateTime.now();
+        status = Status.FAILED;
+    }
+
+    public void rowProcessed() {
+        rowsProcessed.incrementAndGet();
+    }
+
+    public void rowsAdded(int count) {
+        addedCount.addAndGet(count);
+        rowsImported.addAndGet(count);
+    }
+
+    public void rowsChanged(int count) {
+        changedCount.addAndGet(count);
+        rowsImported.addAndGet(count);
+    }
+
+    public void rowsRemoved(int count) {
+        removedCount.addAndGet(count);
+    }
+
+    // Rows a SYNC would have removed but kept because other data still refers to them
+    public void rowsKept(int count) {
+        keptCount.addAndGet(count);
+    }
+
+    public void rowUnchanged() {
+        unchangedCount.incrementAndGet();
+    }
+
+    public void rowFailed(long lineNumber, String message) {
+        errorCount.incrementAndGet();
+        if (errors.size() < MAX_RECORDED_ERRORS) {
+            errors.add("Line " + lineNumber + ": " + message);
+        }
+    }
+
+    public boolean isFinished() {
+        return status == Status.SUCCEEDED || status == Status.FAILED;
+    }
+
+    public double getRowsPerSecond() {
+        if (startedAt == null) {
+            return 0;
+        }
+        LocalDateTime end = finishedAt != null ? finishedAt : LocalDateTime.now();
+        long millis = Math.max(1, Duration.between(startedAt, end).toMillis());
+        return Math.round(rowsProcessed.get() * 10_000.0 / millis) / 10.0;
+    }
+
+    public Long getDurationMs() {
+        if (startedAt == null) {
+            return null;
+        }
+        LocalDateTime end = finishedAt != null ? finishedAt : LocalDateTime.now();
+        return Duration.between(startedAt, end).toMillis();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public LocalDateTime getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public String getFailureMessage() {
+        return failureMessage;
+    }
+
+    public long getRowsProcessed() {
+        return rowsProcessed.get();
+    }
+
+    public long getRowsImported() {
+        return rowsImported.get();
+    }
+
+    public long getErrorCount() {
+        return errorCount.get();
+    }
+
+    public long getAddedCount() {
+        return addedCount.get();
+    }
+
+    public long getChangedCount() {
+        return changedCount.get();
+    }
+
+    public long getRemovedCount() {
+        return removedCount.get();
+    }
+
+    public long getKeptCount() {
+        return keptCount.get();
+    }
+
+    public long getUnchangedCount() {
+        return unchangedCount.get();
+    }
+
+    public List<String> getErrors() {
+        synchronized (errors) {
+            return new ArrayList<>(errors);
+        }
+    }
+}
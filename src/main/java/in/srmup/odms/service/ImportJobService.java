@@ -0,0 +1,147 @@
+package in.srmup.odms.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Runs CSV imports as background jobs. The upload is spooled to disk on the request thread
+ * (so the multipart temp file can go away) and the request returns the job id at once; a
+ * small bounded executor then does the import. When the queue is full, new uploads are
+ * rejected instead of piling up. Job state is kept in memory for the admin view and the
+ * progress API; the most recent finished jobs are retained. With sharding, an import goes to
+ * the campus shard the admin was working on when they uploaded it.
+ */
+@Service
+public class ImportJobService {
+
+    private static final int MAX_RETAINED_JOBS = 50;
+
+    @Autowired
+    private DataImportService dataImportService;
+
+    @Autowired
+    private MasterDataCacheService masterDataCacheService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${app.import.spool-dir:${java.io.tmpdir}/odms-import}")
+    private String spoolDir;
+
+    private final ThreadPoolExecutor executor;
+    private final Map<String, ImportJob> jobs = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    public ImportJobService(@Value("${app.import.worker-threads:1}") int workerThreads,
+                            @Value("${app.import.queue-capacity:4}") int queueCapacity) {
+        this.executor = new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "csv-import");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Spools the upload and queues the import.
+     *
+     * @throws RejectedExecutionException if too many imports are already waiting
+     */
+    public ImportJob submit(ImportJob.Type type, MultipartFile file, ImportJob.Mode mode) throws IOException {
+        Path dir = Paths.get(spoolDir);
+        Files.createDirectories(dir);
+        Path spooled = Files.createTempFile(dir, type.name().toLowerCase() + "-", ".csv");
+        file.transferTo(spooled);
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), type, file.getOriginalFilename(), mode);
+        register(job);
+        String shard = shardRouter.currentShard();
+        try {
+            executor.execute(() -> shardRouter.inShard(shard, () -> {
+                run(job, spooled);
+                return null;
+            }));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            Files.deleteIfExists(spooled);
+            throw e;
+        }
+        return job;
+    }
+
+    public Optional<ImportJob> getJob(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    /**
+     * All retained jobs, newest first.
+     */
+    public List<ImportJob> listJobs() {
+        List<ImportJob> result;
+        synchronized (jobs) {
+            result = new ArrayList<>(jobs.values());
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    private void run(ImportJob job, Path spooled) {
+        job.markRunning();
+        System.out.println("Import job " + job.getId() + " (" + job.getType() + ", " + job.getFileName() + ") started");
+        try {
+            if (job.getType() == ImportJob.Type.STUDENTS) {
+                dataImportService.importStudentsFromCsv(spooled, job.getMode(), job);
+            } else {
+                dataImportService.importFacultyFromCsv(spooled, job.getMode(), job);
+            }
+            job.markSucceeded();
+            System.out.println("Import job " + job.getId() + " (" + job.getMode() + ") finished: " + job.getAddedCount() + " added, "
+                    + job.getChangedCount() + " changed, " + job.getRemovedCount() + " removed (" + job.getKeptCount() + " kept in use), "
+                    + job.getUnchangedCount() + " unchanged, " + job.getErrorCount() + " rejected in " + job.getDurationMs() + " ms");
+        } catch (Exception e) {
+            job.markFailed(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+            System.err.println("Import job " + job.getId() + " failed: " + e.getMessage());
+        } finally {
+            // After commit or rollback, so readers never re-cache rows from the old data
+            if (job.getType() == ImportJob.Type.STUDENTS) {
+                masterDataCacheService.evictStudents();
+            } else {
+                masterDataCacheService.evictFaculty();
+            }
+            try {
+                Files.deleteIfExists(spooled);
+            } catch (IOException e) {
+                System.err.println("Could not delete spooled import file " + spooled + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void register(ImportJob job) {
+        synchronized (jobs) {
+            jobs.put(job.getId(), job);
+            // Drop the oldest finished jobs; running and queued ones always stay visible
+            Iterator<ImportJob> oldestFirst = jobs.values().iterator();
+            while (jobs.size() > MAX_RETAINED_JOBS && oldestFirst.hasNext()) {
+                if (oldestFirst.next().isFinished()) {
+                    oldestFirst.remove();
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,77 @@
+package in.srmup.odms.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of durations in seconds. Values below 32 s are counted exactly; above
+ * that every power of two is split into 32 buckets, so a reported percentile is within ~3% of
+ * the true value while recording stays one array increment and memory stays fixed (~700
+ * buckets covering up to two years).
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKETS = 32;
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int MAX_SHIFT = 21;
+    private static final int BUCKETS = SUB_BUCKETS + (MAX_SHIFT + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long seconds) {
+        long value = Math.max(0, seconds);
+        counts.incrementAndGet(bucketOf(value));
+        count.incrementAndGet();
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * The value at the given quantile (0..1), in seconds; 0 when nothing was recorded.
+     */
+    public long percentile(double quantile) {
+        long total = count.get();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += counts.get(bucket);
+            if (seen >= rank) {
+                return Math.min(representativeValue(bucket), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = Math.min(63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS, MAX_SHIFT);
+        long subBucket = Math.min(value >> shift, 2 * SUB_BUCKETS - 1);
+        return SUB_BUCKETS + shift * SUB_BUCKETS + (int) (subBucket - SUB_BUCKETS);
+    }
+
+    // Midpoint of the bucket's range
+    private static long representativeValue(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+        long subBucket = (bucket - SUB_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+        long lower = subBucket << shift;
+        long upper = ((subBucket + 1) << shift) - 1;
+        return (lower + upper) / 2;
+    }
+}
@@ -0,0 +1,71 @@
+package in.srmup.odms.service;
+
+import in.srmup.odms.model.FacultyMaster;
+import in.srmup.odms.model.StudentMaster;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bulk eviction and statistics for the second-level cache regions that hold
+ * master data. StudentMaster and FacultyMaster only change through the CSV
+ * import, so the import is the one place that has to drop these regions.
+ */
+@Service
+public class MasterDataCacheService {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private StudentSearchService studentSearchService;
+
+    public void evictStudents() {
+        SessionFactory sessionFactory = sessionFactory();
+        sessionFactory.getCache().evictEntityData(StudentMaster.class);
+        sessionFactory.getCache().evictQueryRegions();
+        studentSearchService.invalidate();
+    }
+
+    public void evictFaculty() {
+        SessionFactory sessionFactory = sessionFactory();
+        sessionFactory.getCache().evictEntityData(FacultyMaster.class);
+        sessionFactory.getCache().evictQueryRegions();
+    }
+
+    /**
+     * Hit/miss/put counts per master-data region, e.g. for an admin status page.
+     */
+    public Map<String, Map<String, Long>> getRegionStatistics() {
+        Statistics statistics = sessionFactory().getStatistics();
+        Map<String, Map<String, Long>> result = new LinkedHashMap<>();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStats = statistics.getDomainDataRegionStatistics(region);
+            if (regionStats == null) {
+                continue;
+            }
+            Map<String, Long> counts = new LinkedHashMap<>();
+            counts.put("hits", regionStats.getHitCount());
+            counts.put("misses", regionStats.getMissCount());
+            counts.put("puts", regionStats.getPutCount());
+            counts.put("elementsInMemory", regionStats.getElementCountInMemory());
+            result.put(region, counts);
+        }
+        Map<String, Long> queryCounts = new LinkedHashMap<>();
+        queryCounts.put("hits", statistics.getQueryCacheHitCount());
+        queryCounts.put("misses", statistics.getQueryCacheMissCount());
+        queryCounts.put("puts", statistics.getQueryCachePutCount());
+        result.put("query-cache", queryCounts);
+        return result;
+    }
+
+    private SessionFactory sessionFactory() {
+        return entityManagerFactory.unwrap(SessionFactory.class);
+    }
+}
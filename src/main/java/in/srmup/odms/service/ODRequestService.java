@@ -1,18 +1,24 @@
 package in.srmup.odms.service;
 
 import in.srmup.odms.model.EventRequest;
-import in.srmup.odms.model.RequestStatus;
 import in.srmup.odms.repository.EventRequestRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+
 @Service
 public class ODRequestService {
     private final EventRequestRepository eventRequestRepository;
+    private final RequestSearchIndex requestSearchIndex;
+    private final WorkflowEngine workflowEngine;
 
     @Autowired
-    public ODRequestService(EventRequestRepository eventRequestRepository) {
+    public ODRequestService(EventRequestRepository eventRequestRepository, RequestSearchIndex requestSearchIndex,
+                            WorkflowEngine workflowEngine) {
         this.eventRequestRepository = eventRequestRepository;
+        this.requestSearchIndex = requestSearchIndex;
+        this.workflowEngine = workflowEngine;
     }
 
     /**
@@ -22,10 +28,14 @@ public class ODRequestService {
      * @return
      */
     public EventRequest createOdRequest(EventRequest odRequest) {
-        //Set an initial status for all new requests
-        odRequest.setStatus(RequestStatus.SUBMITTED);
+        //Set the initial status of the request's workflow
+        odRequest.setStatus(workflowEngine.initialStatus(odRequest));
+        odRequest.setSubmittedAt(LocalDateTime.now());
+        odRequest.setStageEnteredAt(odRequest.getSubmittedAt());
 
         //Save request to db using repo
-        return eventRequestRepository.save(odRequest);
+        EventRequest saved = eventRequestRepository.save(odRequest);
+        requestSearchIndex.index(saved);
+        return saved;
     }
 }
\ No newline at end of file
@@ -0,0 +1,343 @@
+package in.srmup.odms.service;
+
+import in.srmup.odms.model.EventRequest;
+import in.srmup.odms.model.Participant;
+import in.srmup.odms.repository.EventRequestRepository;
+import in.srmup.odms.repository.ParticipantRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index for approver free-text search. Maps each token of a request's
+ * event name and its participants' names and reg numbers to a sorted list of request IDs.
+ * Participant branches are kept as a separate facet, so a branch filter is an in-memory
+ * intersection instead of a correlated subquery over the participant table.
+ * <p>
+ * The index is built from the database on first use (or during startup warm-up) and kept up to
+ * date by {@link #index(EventRequest)} whenever a request is created. Event names and
+ * participants don't change after submission, so there is nothing else to maintain. It only
+ * narrows down candidate IDs; status, visibility and the structured filters are always
+ * applied by the database, so a stale entry (e.g. from a rolled-back submit) never shows up.
+ * With sharding each campus shard has an index of its own, and a search only looks at the
+ * approver's shard, so postings never span the ID gap between two shards' ranges.
+ */
+@Service
+public class RequestSearchIndex {
+
+    private static final int REBUILD_BATCH_SIZE = 5000;
+    // Shorter tokens are matched exactly; expanding "a" or "r" as a prefix would touch most of the index
+    private static final int MIN_PREFIX_LENGTH = 2;
+
+    @Autowired
+    private EventRequestRepository eventRequestRepository;
+
+    @Autowired
+    private ParticipantRepository participantRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    // One per shard, keyed by shard name
+    private final Map<String, ShardIndex> indexes = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean built;
+
+    /**
+     * Splits free text into lower-case letter/digit tokens.
+     */
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static String branchKey(String branch) {
+        return branch == null ? "" : branch.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Request IDs (ascending) on the current shard containing every query token, each matched
+     * as a prefix, and having at least one participant from the given branch. Blank arguments
+     * don't constrain.
+     */
+    public int[] search(String text, String branch) {
+        List<String> tokens = tokenize(text);
+        String branchKey = branchKey(branch);
+        ensureBuilt();
+        String shard = shardRouter.currentShard();
+
+        lock.readLock().lock();
+        try {
+            ShardIndex index = indexes.get(shard);
+            if (index == null) {
+                return new int[0];
+            }
+            List<int[]> matches = new ArrayList<>(tokens.size() + 1);
+            if (!branchKey.isEmpty()) {
+                Postings inBranch = index.postingsByBranch.get(branchKey);
+                if (inBranch == null) {
+                    return new int[0];
+                }
+                matches.add(inBranch.toArray());
+            }
+            for (String token : new LinkedHashSet<>(tokens)) {
+                int[] ids = lookup(index, token);
+                if (ids.length == 0) {
+                    return ids;
+                }
+                matches.add(ids);
+            }
+            if (matches.isEmpty()) {
+                return new int[0];
+            }
+            // Intersect starting from the rarest token so the working set only shrinks
+            matches.sort(Comparator.comparingInt(ids -> ids.length));
+            int[] result = matches.get(0);
+            for (int i = 1; i < matches.size() && result.length > 0; i++) {
+                result = intersect(result, matches.get(i));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void index(EventRequest request) {
+        if (request.getId() == null) {
+            return;
+        }
+        Set<String> tokens = tokensOf(request.getEventName(), request.getParticipants());
+        Set<String> branches = branchesOf(request.getParticipants());
+        int id = Math.toIntExact(request.getId());
+        String shard = shardRouter.currentShard();
+        lock.writeLock().lock();
+        try {
+            if (!built) {
+                // The first search builds the whole index from the database, including this request
+                return;
+            }
+            ShardIndex index = indexes.computeIfAbsent(shard, s -> new ShardIndex());
+            for (String token : tokens) {
+                index.postingsByToken.computeIfAbsent(token, t -> new Postings()).add(id);
+            }
+            for (String branch : branches) {
+                index.postingsByBranch.computeIfAbsent(branch, b -> new Postings()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void ensureBuilt() {
+        if (built) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!built) {
+                rebuild();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rebuilds the index from the database, reading each shard's requests in ID order in
+     * batches. Returns the number of requests indexed.
+     */
+    public int rebuild() {
+        lock.writeLock().lock();
+        try {
+            long start = System.currentTimeMillis();
+            indexes.clear();
+            int[] indexed = {0};
+            int[] tokenCount = {0};
+            shardRouter.forEachShard(shard -> {
+                ShardIndex index = new ShardIndex();
+                indexed[0] += indexShard(index);
+                tokenCount[0] += index.postingsByToken.size();
+                indexes.put(shard, index);
+            });
+            built = true;
+            System.out.println("Request search index built: " + indexed[0] + " requests, "
+                    + tokenCount[0] + " tokens in " + (System.currentTimeMillis() - start) + " ms");
+            return indexed[0];
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Caller holds the write lock
+    private int indexShard(ShardIndex index) {
+        int indexed = 0;
+        long afterId = 0;
+        while (true) {
+            List<Object[]> requests = eventRequestRepository.findIdAndEventNameAfter(afterId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+            if (requests.isEmpty()) {
+                break;
+            }
+            long firstId = (Long) requests.get(0)[0];
+            long lastId = (Long) requests.get(requests.size() - 1)[0];
+
+            Map<Long, Set<String>> tokensById = new HashMap<>();
+            Map<Long, Set<String>> branchesById = new HashMap<>();
+            for (Object[] row : requests) {
+                tokensById.put((Long) row[0], new HashSet<>(tokenize((String) row[1])));
+                branchesById.put((Long) row[0], new HashSet<>());
+            }
+            for (Object[] row : participantRepository.findSearchTermsByEventRequestIdBetween(firstId, lastId)) {
+                Set<String> tokens = tokensById.get((Long) row[0]);
+                if (tokens != null) {
+                    tokens.addAll(tokenize((String) row[1]));
+                    tokens.addAll(tokenize((String) row[2]));
+                    String branch = branchKey((String) row[3]);
+                    if (!branch.isEmpty()) {
+                        branchesById.get((Long) row[0]).add(branch);
+                    }
+                }
+            }
+            // Batches arrive in ascending ID order, so every posting is an append
+            for (Object[] row : requests) {
+                int id = Math.toIntExact((Long) row[0]);
+                for (String token : tokensById.get((Long) row[0])) {
+                    index.postingsByToken.computeIfAbsent(token, t -> new Postings()).add(id);
+                }
+                for (String branch : branchesById.get((Long) row[0])) {
+                    index.postingsByBranch.computeIfAbsent(branch, b -> new Postings()).add(id);
+                }
+            }
+            indexed += requests.size();
+            afterId = lastId;
+        }
+        return indexed;
+    }
+
+    private Set<String> tokensOf(String eventName, List<Participant> participants) {
+        Set<String> tokens = new HashSet<>(tokenize(eventName));
+        if (participants != null) {
+            for (Participant participant : participants) {
+                tokens.addAll(tokenize(participant.getName()));
+                tokens.addAll(tokenize(participant.getRegNo()));
+            }
+        }
+        return tokens;
+    }
+
+    private Set<String> branchesOf(List<Participant> participants) {
+        Set<String> branches = new HashSet<>();
+        if (participants != null) {
+            for (Participant participant : participants) {
+                String branch = branchKey(participant.getBranch());
+                if (!branch.isEmpty()) {
+                    branches.add(branch);
+                }
+            }
+        }
+        return branches;
+    }
+
+    // Caller holds the read lock
+    private static int[] lookup(ShardIndex index, String token) {
+        if (token.length() < MIN_PREFIX_LENGTH) {
+            Postings exact = index.postingsByToken.get(token);
+            return exact == null ? new int[0] : exact.toArray();
+        }
+        SortedMap<String, Postings> matching = index.postingsByToken.subMap(token, token + Character.MAX_VALUE);
+        if (matching.size() == 1) {
+            return matching.values().iterator().next().toArray();
+        }
+        // Union through a bitmap over the ID range: linear in the number of postings, no sort
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (Postings postings : matching.values()) {
+            if (postings.size > 0) {
+                min = Math.min(min, postings.ids[0]);
+                max = Math.max(max, postings.ids[postings.size - 1]);
+            }
+        }
+        if (min > max) {
+            return new int[0];
+        }
+        BitSet union = new BitSet(max - min + 1);
+        for (Postings postings : matching.values()) {
+            for (int i = 0; i < postings.size; i++) {
+                union.set(postings.ids[i] - min);
+            }
+        }
+        int[] result = new int[union.cardinality()];
+        int n = 0;
+        for (int bit = union.nextSetBit(0); bit >= 0; bit = union.nextSetBit(bit + 1)) {
+            result[n++] = bit + min;
+        }
+        return result;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    // The postings of one shard's requests
+    private static class ShardIndex {
+        private final NavigableMap<String, Postings> postingsByToken = new TreeMap<>();
+        private final Map<String, Postings> postingsByBranch = new HashMap<>();
+    }
+
+    /**
+     * Sorted, duplicate-free list of request IDs for one token.
+     */
+    private static class Postings {
+        private int[] ids = new int[2];
+        private int size;
+
+        void add(int id) {
+            if (size > 0 && ids[size - 1] >= id) {
+                int pos = Arrays.binarySearch(ids, 0, size, id);
+                if (pos >= 0) {
+                    return;
+                }
+                insertAt(-pos - 1, id);
+                return;
+            }
+            insertAt(size, id);
+        }
+
+        private void insertAt(int pos, int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            ids[pos] = id;
+            size++;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+    }
+}
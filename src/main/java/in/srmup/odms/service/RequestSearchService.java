@@ -0,0 +1,244 @@
+package in.srmup.odms.service;
+
+import in.srmup.odms.model.EventRequest;
+import in.srmup.odms.model.RequestStatus;
+import in.srmup.odms.repository.EventRequestRowKey;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Approver search over event requests. Filters on request columns (status, coordinator, date
+ * range) become a criteria query over indexed columns; free text and the participant branch are
+ * resolved to candidate IDs by {@link RequestSearchIndex} first. Results are row keys, newest first, paged by
+ * keyset ({@code beforeId}) so later pages cost the same as the first.
+ */
+@Service
+public class RequestSearchService {
+
+    public static final int PAGE_SIZE = 50;
+    private static final int MAX_ID_CHUNK_SIZE = 1000;
+    // With more index matches than this, page through the structured results and test membership instead
+    private static final int MAX_CANDIDATES_FOR_IN_LIST = 5000;
+    private static final int SCAN_BATCH_SIZE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private RequestSearchIndex requestSearchIndex;
+
+    public SearchResult search(SearchCriteria criteria) {
+        long start = System.nanoTime();
+        int limit = PAGE_SIZE + 1; // one extra row tells us whether there is a next page
+
+        List<EventRequestRowKey> keys;
+        if (criteria.hasText() || criteria.hasBranch()) {
+            int[] candidates = requestSearchIndex.search(criteria.getQ(), criteria.getBranch());
+            int end = candidates.length;
+            if (criteria.getBeforeId() != null) {
+                int pos = Arrays.binarySearch(candidates, Math.toIntExact(criteria.getBeforeId()));
+                end = pos >= 0 ? pos : -pos - 1;
+            }
+            if (end == 0) {
+                keys = List.of();
+            } else if (end <= MAX_CANDIDATES_FOR_IN_LIST) {
+                keys = searchWithinCandidates(criteria, candidates, end, limit);
+            } else {
+                keys = scanForCandidates(criteria, candidates, end, limit);
+            }
+        } else {
+            keys = query(criteria, null, criteria.getBeforeId(), limit);
+        }
+
+        boolean hasMore = keys.size() > PAGE_SIZE;
+        if (hasMore) {
+            keys = keys.subList(0, PAGE_SIZE);
+        }
+        Long nextBeforeId = hasMore ? keys.get(keys.size() - 1).getId() : null;
+        return new SearchResult(keys, nextBeforeId, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Few candidates: apply the filters to them, newest chunk first, until the page is full.
+    // The first chunk is just big enough for a page; chunks grow when the filters reject most IDs.
+    private List<EventRequestRowKey> searchWithinCandidates(SearchCriteria criteria, int[] candidates, int end, int limit) {
+        List<EventRequestRowKey> result = new ArrayList<>();
+        int chunkSize = limit * 2;
+        for (int hi = end; hi > 0 && result.size() < limit; chunkSize = Math.min(chunkSize * 4, MAX_ID_CHUNK_SIZE)) {
+            int lo = Math.max(0, hi - chunkSize);
+            List<Long> ids = new ArrayList<>(hi - lo);
+            for (int i = lo; i < hi; i++) {
+                ids.add((long) candidates[i]);
+            }
+            result.addAll(query(criteria, ids, null, limit - result.size()));
+            hi = lo;
+        }
+        return result;
+    }
+
+    // Many candidates: the text/branch is not selective, so walk the filtered rows and keep the matching ones
+    private List<EventRequestRowKey> scanForCandidates(SearchCriteria criteria, int[] candidates, int end, int limit) {
+        List<EventRequestRowKey> result = new ArrayList<>();
+        Long beforeId = criteria.getBeforeId();
+        while (result.size() < limit) {
+            List<EventRequestRowKey> batch = query(criteria, null, beforeId, SCAN_BATCH_SIZE);
+            for (EventRequestRowKey key : batch) {
+                if (Arrays.binarySearch(candidates, 0, end, Math.toIntExact(key.getId())) >= 0) {
+                    result.add(key);
+                    if (result.size() == limit) {
+                        break;
+                    }
+                }
+            }
+            if (batch.size() < SCAN_BATCH_SIZE) {
+                break;
+            }
+            beforeId = batch.get(batch.size() - 1).getId();
+        }
+        return result;
+    }
+
+    private List<EventRequestRowKey> query(SearchCriteria criteria, List<Long> ids, Long beforeId, int maxResults) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<EventRequestRowKey> cq = cb.createQuery(EventRequestRowKey.class);
+        Root<EventRequest> request = cq.from(EventRequest.class);
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.isFalse(request.get("isHidden")));
+        if (criteria.getStatus() != null) {
+            predicates.add(cb.equal(request.get("status"), criteria.getStatus()));
+        }
+        if (criteria.getCoordinatorId() != null) {
+            predicates.add(cb.equal(request.get("facultyCoordinator").get("id"), criteria.getCoordinatorId()));
+        }
+        // Any overlap with [fromDate, toDate]
+        if (criteria.getFromDate() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(request.get("endDate"), criteria.getFromDate()));
+        }
+        if (criteria.getToDate() != null) {
+            predicates.add(cb.lessThanOrEqualTo(request.get("startDate"), criteria.getToDate()));
+        }
+        if (ids != null) {
+            predicates.add(request.get("id").in(ids));
+        }
+        if (beforeId != null) {
+            predicates.add(cb.lessThan(request.get("id"), beforeId));
+        }
+
+        cq.select(cb.construct(EventRequestRowKey.class, request.get("id"), request.get("version")))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.desc(request.get("id")));
+        return entityManager.createQuery(cq).setMaxResults(maxResults).getResultList();
+    }
+
+    /**
+     * Search form fields; every field is optional.
+     */
+    public static class SearchCriteria {
+        private String q;
+        private RequestStatus status;
+        private Long coordinatorId;
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+        private LocalDate fromDate;
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+        private LocalDate toDate;
+        private String branch;
+        private Long beforeId;
+
+        public boolean hasText() {
+            return !RequestSearchIndex.tokenize(q).isEmpty();
+        }
+
+        public boolean hasBranch() {
+            return branch != null && !branch.isBlank();
+        }
+
+        public String getQ() {
+            return q;
+        }
+
+        public void setQ(String q) {
+            this.q = q;
+        }
+
+        public RequestStatus getStatus() {
+            return status;
+        }
+
+        public void setStatus(RequestStatus status) {
+            this.status = status;
+        }
+
+        public Long getCoordinatorId() {
+            return coordinatorId;
+        }
+
+        public void setCoordinatorId(Long coordinatorId) {
+            this.coordinatorId = coordinatorId;
+        }
+
+        public LocalDate getFromDate() {
+            return fromDate;
+        }
+
+        public void setFromDate(LocalDate fromDate) {
+            this.fromDate = fromDate;
+        }
+
+        public LocalDate getToDate() {
+            return toDate;
+        }
+
+        public void setToDate(LocalDate toDate) {
+            this.toDate = toDate;
+        }
+
+        public String getBranch() {
+            return branch;
+        }
+
+        public void setBranch(String branch) {
+            this.branch = branch;
+        }
+
+        public Long getBeforeId() {
+            return beforeId;
+        }
+
+        public void setBeforeId(Long beforeId) {
+            this.beforeId = beforeId;
+        }
+    }
+
+    public static class SearchResult {
+        private final List<EventRequestRowKey> rows;
+        private final Long nextBeforeId;
+        private final long tookMs;
+
+        public SearchResult(List<EventRequestRowKey> rows, Long nextBeforeId, long tookMs) {
+            this.rows = rows;
+            this.nextBeforeId = nextBeforeId;
+            this.tookMs = tookMs;
+        }
+
+        public List<EventRequestRowKey> getRows() {
+            return rows;
+        }
+
+        public Long getNextBeforeId() {
+            return nextBeforeId;
+        }
+
+        public long getTookMs() {
+            return tookMs;
+        }
+    }
+}
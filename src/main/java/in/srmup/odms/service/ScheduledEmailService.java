@@ -26,20 +26,26 @@ public class ScheduledEmailService {
     private FacultyMasterRepository facultyMasterRepository;
     @Autowired
     private JavaMailSender mailSender;
+    @Autowired
+    private ShardRouter shardRouter;
 
     // Cron Expression: second, minute, hour, day, month, weekday
     // This runs at 3:00 PM (15:00) every day in the specified timezone.
     @Scheduled(cron = "0 0 15 * * *", zone = "Asia/Kolkata")
     public void sendDailyOdDigest() {
         System.out.println("Running daily OD digest job at 3 PM IST...");
+        // Each campus shard holds its own requests and class teachers
+        shardRouter.forEachShard(shard -> sendDailyOdDigest(shard));
+    }
 
+    private void sendDailyOdDigest(String shard) {
         // 1. Find all requests approved today
         // Note: You will need to add a new 'approvedDate' field to your EventRequest entity
         // and a corresponding 'findByApprovedDate' method to your repository.
         List<EventRequest> approvedToday = eventRequestRepository.findByStatusAndApprovedDateAndIsHiddenFalse(RequestStatus.APPROVED, LocalDate.now());
 
         if (approvedToday.isEmpty()) {
-            System.out.println("No new ODs approved today. No emails sent.");
+            System.out.println("No new ODs approved today on shard " + shard + ". No emails sent.");
             return;
         }
 
@@ -0,0 +1,323 @@
+package in.srmup.odms.service;
+
+import in.srmup.odms.config.sharding.ShardContext;
+import in.srmup.odms.config.sharding.ShardRoutingDataSource;
+import in.srmup.odms.repository.StudentMasterRepository;
+import in.srmup.odms.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Decides which shard (campus database) work belongs to and runs it there. The shard key is
+ * the department: {@code app.sharding.departments[<department>]=<shard>}, unmapped departments
+ * going to the default shard. A logged-in user's shard comes from their {@code User.department}
+ * (see {@link in.srmup.odms.config.sharding.ShardRoutingFilter}); a submitted request's from
+ * its participants' {@code StudentMaster.department}. Admin views that span campuses use
+ * {@link #fanOut}, which queries every shard in parallel and fails if one of them does;
+ * student-facing lookups use {@link #fanOutAvailable}, which answers from the shards that
+ * respond in time so one campus being down doesn't take the others' forms with it.
+ * <p>
+ * Without {@code app.sharding.enabled} there is a single shard, {@value #SINGLE_SHARD}, and
+ * every method runs its work inline on the calling thread.
+ */
+@Service
+public class ShardRouter {
+
+    public static final String SINGLE_SHARD = "default";
+    // Keeps each IN list well below the bind-parameter limits of H2 and PostgreSQL
+    private static final int REG_NO_LOOKUP_CHUNK_SIZE = 500;
+
+    private final List<String> shards;
+    private final String defaultShard;
+    private final Map<String, String> shardByDepartment = new HashMap<>();
+    private final EntityManagerFactory entityManagerFactory;
+    private final TransactionTemplate newTransaction;
+    private final TransactionTemplate readOnlyTransaction;
+    private final StudentMasterRepository studentMasterRepository;
+    private final UserRepository userRepository;
+    private final ExecutorService fanOutExecutor;
+    private final long fanOutTimeoutSeconds;
+    private final long partialTimeoutMillis;
+    private final long retryFailedShardNanos;
+    // Shards that failed a partial read, until when they are skipped
+    private final Map<String, Long> skippedUntilNanos = new ConcurrentHashMap<>();
+
+    public ShardRouter(ObjectProvider<ShardRoutingDataSource> routingDataSource, Environment environment,
+                       EntityManagerFactory entityManagerFactory, PlatformTransactionManager transactionManager,
+                       StudentMasterRepository studentMasterRepository, UserRepository userRepository) {
+        ShardRoutingDataSource dataSource = routingDataSource.getIfAvailable();
+        this.shards = dataSource != null ? dataSource.getShardNames() : List.of(SINGLE_SHARD);
+        this.defaultShard = shards.get(0);
+        this.entityManagerFactory = entityManagerFactory;
+        this.studentMasterRepository = studentMasterRepository;
+        this.userRepository = userRepository;
+
+        // A session already open on another shard is set aside, not reused
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+
+        Binder.get(environment).bind("app.sharding.departments", Bindable.mapOf(String.class, String.class))
+                .orElse(Map.of())
+                .forEach((department, shard) -> {
+                    if (!shards.contains(shard)) {
+                        throw new IllegalStateException("app.sharding.departments[" + department + "] names unknown shard " + shard);
+                    }
+                    shardByDepartment.put(departmentKey(department), shard);
+                });
+
+        this.fanOutTimeoutSeconds = environment.getProperty("app.sharding.fan-out-timeout-seconds", Long.class, 10L);
+        this.partialTimeoutMillis = environment.getProperty("app.sharding.partial-timeout-millis", Long.class, 1500L);
+        this.retryFailedShardNanos = TimeUnit.SECONDS.toNanos(
+                environment.getProperty("app.sharding.retry-failed-shard-seconds", Long.class, 30L));
+        if (isSharded()) {
+            int threads = environment.getProperty("app.sharding.fan-out-threads", Integer.class, 2 * shards.size());
+            this.fanOutExecutor = Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "shard-fan-out");
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.fanOutExecutor = null;
+        }
+    }
+
+    public boolean isSharded() {
+        return shards.size() > 1;
+    }
+
+    public List<String> getShards() {
+        return shards;
+    }
+
+    public String getDefaultShard() {
+        return defaultShard;
+    }
+
+    public String currentShard() {
+        String shard = ShardContext.current();
+        return shard != null ? shard : defaultShard;
+    }
+
+    /**
+     * The departments mapped to a shard, sorted; empty for the default shard's catch-all.
+     */
+    public List<String> getDepartments(String shard) {
+        return shardByDepartment.entrySet().stream()
+                .filter(entry -> entry.getValue().equals(shard))
+                .map(Map.Entry::getKey)
+                .sorted()
+                .toList();
+    }
+
+    public String shardForDepartment(String department) {
+        return shardByDepartment.getOrDefault(departmentKey(department), defaultShard);
+    }
+
+    /**
+     * The shard of a user's department, read from the user directory on the default shard.
+     */
+    public String shardForUser(String email) {
+        if (!isSharded()) {
+            return defaultShard;
+        }
+        return inShard(defaultShard, () -> userRepository.findByEmail(email)
+                .map(user -> shardForDepartment(user.getDepartment()))
+                .orElse(defaultShard));
+    }
+
+    /**
+     * The one shard the given students belong to, by the department on their student master
+     * record (the shard holding the record when it has none). Students found nowhere don't
+     * count; if none is found the current shard is returned. Shards that don't answer are
+     * skipped as long as every student was found on the others.
+     *
+     * @throws IllegalArgumentException if the students belong to more than one shard
+     * @throws IllegalStateException    if a student was not found and a shard that could hold
+     *                                  their record did not answer
+     */
+    public String shardForStudents(Collection<String> regNos) {
+        if (!isSharded() || regNos.isEmpty()) {
+            return currentShard();
+        }
+        List<String> distinct = List.copyOf(new LinkedHashSet<>(regNos));
+        Map<String, List<Object[]>> found = fanOutAvailable(shard -> {
+            List<Object[]> rows = new ArrayList<>();
+            for (int i = 0; i < distinct.size(); i += REG_NO_LOOKUP_CHUNK_SIZE) {
+                rows.addAll(studentMasterRepository.findDepartmentsByRegistrationNumberIn(
+                        distinct.subList(i, Math.min(i + REG_NO_LOOKUP_CHUNK_SIZE, distinct.size()))));
+            }
+            return rows;
+        });
+
+        Map<String, List<String>> regNosByShard = new TreeMap<>();
+        Set<String> missing = new HashSet<>(distinct);
+        found.forEach((shard, rows) -> {
+            for (Object[] row : rows) {
+                missing.remove((String) row[0]);
+                String department = (String) row[1];
+                String target = department == null || department.isBlank() ? shard : shardForDepartment(department);
+                regNosByShard.computeIfAbsent(target, s -> new ArrayList<>()).add((String) row[0]);
+            }
+        });
+        if (!missing.isEmpty() && found.size() < shards.size()) {
+            List<String> unreachable = new ArrayList<>(shards);
+            unreachable.removeAll(found.keySet());
+            throw new IllegalStateException("The campus records of " + missing + " could not be checked because campus "
+                    + unreachable + " is not responding. Please try again in a few minutes.");
+        }
+        if (regNosByShard.isEmpty()) {
+            return currentShard();
+        }
+        if (regNosByShard.size() > 1) {
+            throw new IllegalArgumentException("The participants belong to more than one campus " + regNosByShard
+                    + ". Please submit a separate request for each campus.");
+        }
+        return regNosByShard.keySet().iterator().next();
+    }
+
+    /**
+     * Runs {@code action} on {@code shard}. If the thread already has a session open on another
+     * shard (open-in-view, or a surrounding transaction), the action gets a new transaction and
+     * session of its own.
+     *
+     * @throws IllegalArgumentException if the shard is not configured
+     */
+    public <T> T inShard(String shard, Supplier<T> action) {
+        if (!shards.contains(shard)) {
+            throw new IllegalArgumentException("Unknown shard: " + shard);
+        }
+        if (shard.equals(currentShard())) {
+            return action.get();
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // REQUIRES_NEW suspends the surrounding transaction and its session
+            return ShardContext.callIn(shard, () -> newTransaction.execute(status -> action.get()));
+        }
+        if (!TransactionSynchronizationManager.hasResource(entityManagerFactory)) {
+            return ShardContext.callIn(shard, action);
+        }
+        // An open-in-view session outside a transaction would be joined, not suspended: set it aside
+        Object viewSession = TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+        try {
+            return ShardContext.callIn(shard, () -> newTransaction.execute(status -> action.get()));
+        } finally {
+            TransactionSynchronizationManager.bindResource(entityManagerFactory, viewSession);
+        }
+    }
+
+    /**
+     * Runs {@code action} on every shard in turn, for jobs that work through all campuses.
+     */
+    public void forEachShard(Consumer<String> action) {
+        for (String shard : shards) {
+            inShard(shard, () -> {
+                action.accept(shard);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Runs a read on every shard in parallel, each in its own read-only transaction, and returns
+     * the results by shard in configuration order.
+     *
+     * @throws IllegalStateException if a shard fails or does not answer within
+     *                               {@code app.sharding.fan-out-timeout-seconds}
+     */
+    public <T> Map<String, T> fanOut(Function<String, T> query) {
+        return fanOut(query, false);
+    }
+
+    /**
+     * Like {@link #fanOut}, but for reads that are still useful without every campus: a shard
+     * that fails or does not answer within {@code app.sharding.partial-timeout-millis} is left
+     * out of the result with a warning, and skipped for the next
+     * {@code app.sharding.retry-failed-shard-seconds} so later reads don't wait for it again.
+     */
+    public <T> Map<String, T> fanOutAvailable(Function<String, T> query) {
+        return fanOut(query, true);
+    }
+
+    private <T> Map<String, T> fanOut(Function<String, T> query, boolean partial) {
+        Map<String, T> results = new LinkedHashMap<>();
+        if (!isSharded()) {
+            results.put(defaultShard, query.apply(defaultShard));
+            return results;
+        }
+
+        long now = System.nanoTime();
+        Map<String, Future<T>> futures = new LinkedHashMap<>();
+        for (String shard : shards) {
+            Long skippedUntil = skippedUntilNanos.get(shard);
+            if (partial && skippedUntil != null && skippedUntil - now > 0) {
+                continue;
+            }
+            futures.put(shard, fanOutExecutor.submit(() -> ShardContext.callIn(shard,
+                    () -> readOnlyTransaction.execute(status -> query.apply(shard)))));
+        }
+        long deadline = now + (partial ? TimeUnit.MILLISECONDS.toNanos(partialTimeoutMillis)
+                : TimeUnit.SECONDS.toNanos(fanOutTimeoutSeconds));
+        try {
+            for (Map.Entry<String, Future<T>> future : futures.entrySet()) {
+                String shard = future.getKey();
+                try {
+                    results.put(shard, future.getValue().get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS));
+                    skippedUntilNanos.remove(shard);
+                } catch (TimeoutException e) {
+                    if (!partial) {
+                        throw new IllegalStateException("Shard " + shard + " did not answer within " + fanOutTimeoutSeconds + " s");
+                    }
+                    skip(shard, "did not answer within " + partialTimeoutMillis + " ms");
+                } catch (ExecutionException e) {
+                    if (partial) {
+                        skip(shard, "failed: " + e.getCause());
+                    } else if (e.getCause() instanceof RuntimeException cause) {
+                        throw cause;
+                    } else {
+                        throw new IllegalStateException("Shard " + shard + " failed", e.getCause());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while querying shard " + shard);
+                }
+            }
+        } finally {
+            futures.values().forEach(future -> future.cancel(true));
+        }
+        return results;
+    }
+
+    private void skip(String shard, String reason) {
+        skippedUntilNanos.put(shard, System.nanoTime() + retryFailedShardNanos);
+        System.out.println("WARNING: shard " + shard + " " + reason + "; answering without it for "
+                + TimeUnit.NANOSECONDS.toSeconds(retryFailedShardNanos) + " s");
+    }
+
+    private static String departmentKey(String department) {
+        return department == null ? "" : department.trim().toUpperCase(Locale.ROOT);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (fanOutExecutor != null) {
+            fanOutExecutor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,497 @@
+package in.srmup.odms.service;
+
+import in.srmup.odms.model.ApprovalHistory;
+import in.srmup.odms.model.ApprovalHistoryArchive;
+import in.srmup.odms.model.ApprovalStage;
+import in.srmup.odms.model.EventRequest;
+import in.srmup.odms.repository.ApprovalHistoryArchiveRepository;
+import in.srmup.odms.repository.ApprovalHistoryRepository;
+import in.srmup.odms.repository.EventRequestRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * Time-in-stage SLA metrics. Every approval or rejection contributes one sample: how long the
+ * request had been waiting in its status when that approver acted. Samples go into
+ * {@link LatencyHistogram}s per stage, per approver and per department as the history row
+ * commits, so p50/p90/p99 are always current without re-reading history. Stage and department
+ * percentiles are also published as gauges ({@code odms.sla.time.in.stage}); per-approver
+ * figures are only in the admin report, to keep metric cardinality bounded.
+ * <p>
+ * {@link #startBackfill()} rebuilds everything from the hot and archived history, replaying
+ * slices of request IDs on a small thread pool. Samples committed while it runs go straight
+ * into the new figures, which replace the live ones when the replay finishes.
+ */
+@Service
+public class SlaMetricsService {
+
+    public static final String NO_DEPARTMENT = "(mixed)";
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+    private static final int BACKFILL_SLICE_SIZE = 1000;
+    private static final int HISTORY_LOOKUP_CHUNK_SIZE = 500;
+
+    @Autowired
+    private EventRequestRepository eventRequestRepository;
+
+    @Autowired
+    private ApprovalHistoryRepository approvalHistoryRepository;
+
+    @Autowired
+    private ApprovalHistoryArchiveRepository approvalHistoryArchiveRepository;
+
+    @Autowired
+    private ApprovalHistoryArchiveService approvalHistoryArchiveService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${app.sla.backfill-threads:4}")
+    private int backfillThreads;
+
+    private volatile SlaStats live = new SlaStats();
+    // Stats being rebuilt by a backfill, null otherwise
+    private volatile SlaStats rebuilding;
+    private final AtomicBoolean backfillRunning = new AtomicBoolean();
+    private volatile BackfillStatus lastBackfill;
+    private final Set<String> registeredGauges = ConcurrentHashMap.newKeySet();
+    private final ExecutorService backfillExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "sla-backfill");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Records the history row's time-in-stage once the surrounding transaction commits.
+     *
+     * @param stageEnteredAt when the request entered {@code history.getFromStatus()}; no sample if unknown
+     */
+    public void recordAfterCommit(ApprovalHistory history, String department, LocalDateTime stageEnteredAt) {
+        if (stageEnteredAt == null) {
+            return;
+        }
+        Sample sample = new Sample(stageLabel(history.getApproverRole()), history.getApproverEmail(),
+                departmentLabel(department), Duration.between(stageEnteredAt, history.getActionTimestamp()).toSeconds());
+        String shard = shardRouter.currentShard();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            record(sample, shard, history.getId());
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                record(sample, shard, history.getId());
+            }
+        });
+    }
+
+    private void record(Sample sample, String shard, Long historyId) {
+        live.add(sample);
+        registerGauges(sample);
+        SlaStats target = rebuilding;
+        // Rows up to the shard's cutoff are replayed by the backfill itself
+        if (target != null && historyId != null && !target.isReplayed(shard, historyId)) {
+            target.add(sample);
+        }
+    }
+
+    public SlaReport getReport() {
+        SlaStats stats = live;
+        return new SlaReport(stats.rows(stats.byStage), stats.rows(stats.byDepartment), stats.rows(stats.byApprover),
+                backfillRunning.get(), lastBackfill);
+    }
+
+    /**
+     * Starts rebuilding the figures from all stored history in the background.
+     *
+     * @return false if a backfill is already running
+     */
+    public boolean startBackfill() {
+        if (!backfillRunning.compareAndSet(false, true)) {
+            return false;
+        }
+        backfillExecutor.execute(() -> {
+            long start = System.currentTimeMillis();
+            try {
+                BackfillStatus status = backfill();
+                lastBackfill = status;
+                System.out.println("SLA backfill replayed " + status.getSamples() + " history rows from "
+                        + status.getRequests() + " requests in " + (System.currentTimeMillis() - start) + " ms");
+            } catch (Exception e) {
+                rebuilding = null;
+                lastBackfill = new BackfillStatus(LocalDateTime.now(), 0, 0, System.currentTimeMillis() - start, e.getMessage());
+                System.err.println("SLA backfill failed: " + e.getMessage());
+            } finally {
+                backfillRunning.set(false);
+            }
+        });
+        return true;
+    }
+
+    private BackfillStatus backfill() throws InterruptedException, ExecutionException {
+        long start = System.currentTimeMillis();
+        SlaStats stats = new SlaStats();
+        rebuilding = stats;
+        AtomicLong requests = new AtomicLong();
+        AtomicLong samples = new AtomicLong();
+        ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, backfillThreads), runnable -> {
+            Thread thread = new Thread(runnable, "sla-backfill-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            // One campus shard after another, each sliced across the workers
+            for (String shard : shardRouter.getShards()) {
+                List<Future<?>> slices = shardRouter.inShard(shard, () -> {
+                    stats.historyIdCutoffs.put(shard, Optional.ofNullable(approvalHistoryRepository.findMaxId()).orElse(0L));
+                    Long minId = eventRequestRepository.findMinId();
+                    Long maxId = eventRequestRepository.findMaxId();
+                    List<Future<?>> submitted = new ArrayList<>();
+                    if (minId != null) {
+                        for (long from = minId; from <= maxId; from += BACKFILL_SLICE_SIZE) {
+                            long lo = from;
+                            long hi = Math.min(from + BACKFILL_SLICE_SIZE - 1, maxId);
+                            submitted.add(workers.submit(() -> shardRouter.inShard(shard, () -> {
+                                replaySlice(lo, hi, stats, requests, samples);
+                                return null;
+                            })));
+                        }
+                    }
+                    return submitted;
+                });
+                for (Future<?> slice : slices) {
+                    slice.get();
+                }
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+
+        live = stats;
+        rebuilding = null;
+        stats.forEachKey(this::registerGauges);
+        return new BackfillStatus(LocalDateTime.now(), requests.get(), samples.get(), System.currentTimeMillis() - start, null);
+    }
+
+    // Replays the history of requests with IDs in [lo, hi], hot rows and archived ones
+    private void replaySlice(long lo, long hi, SlaStats stats, AtomicLong requests, AtomicLong samples) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        transaction.executeWithoutResult(status -> {
+            Map<Long, EventRequest> requestsById = new LinkedHashMap<>();
+            for (EventRequest request : eventRequestRepository.findByIdBetween(lo, hi)) {
+                requestsById.put(request.getId(), request);
+            }
+            if (requestsById.isEmpty()) {
+                return;
+            }
+
+            Map<Long, List<ApprovalHistory>> historyByRequest = new HashMap<>();
+            List<Long> ids = new ArrayList<>(requestsById.keySet());
+            for (int i = 0; i < ids.size(); i += HISTORY_LOOKUP_CHUNK_SIZE) {
+                for (ApprovalHistory history : approvalHistoryRepository.findByEventRequestIdInOrderByEventRequestIdAscActionTimestampAsc(
+                        ids.subList(i, Math.min(i + HISTORY_LOOKUP_CHUNK_SIZE, ids.size())))) {
+                    if (stats.isReplayed(shardRouter.currentShard(), history.getId())) {
+                        historyByRequest.computeIfAbsent(history.getEventRequest().getId(), k -> new ArrayList<>()).add(history);
+                    }
+                }
+            }
+            for (ApprovalHistoryArchive archive : approvalHistoryArchiveRepository.findByEventRequestIdBetween(lo, hi)) {
+                EventRequest request = requestsById.get(archive.getEventRequestId());
+                if (request != null) {
+                    // The archived entries come first; rows added after archiving (a later rejection) follow them
+                    List<ApprovalHistory> history = approvalHistoryArchiveService.decodeArchive(archive, request);
+                    history.addAll(historyByRequest.getOrDefault(request.getId(), List.of()));
+                    historyByRequest.put(request.getId(), history);
+                }
+            }
+
+            for (Map.Entry<Long, List<ApprovalHistory>> entry : historyByRequest.entrySet()) {
+                EventRequest request = requestsById.get(entry.getKey());
+                samples.addAndGet(replay(request, entry.getValue(), stats));
+                requests.incrementAndGet();
+            }
+        });
+    }
+
+    // A request waits in a status from the action that moved it there (or its submission) until each approver's action
+    private int replay(EventRequest request, List<ApprovalHistory> history, SlaStats stats) {
+        LocalDateTime enteredAt = request.getSubmittedAt();
+        String department = departmentLabel(request.getDepartment());
+        int recorded = 0;
+        for (ApprovalHistory entry : history) {
+            if (enteredAt != null) {
+                stats.add(new Sample(stageLabel(entry.getApproverRole()), entry.getApproverEmail(), department,
+                        Duration.between(enteredAt, entry.getActionTimestamp()).toSeconds()));
+                recorded++;
+            }
+            if (entry.getFromStatus() != entry.getToStatus()) {
+                enteredAt = entry.getActionTimestamp();
+            }
+        }
+        return recorded;
+    }
+
+    private void registerGauges(Sample sample) {
+        registerGauges("stage", sample.stage);
+        registerGauges("department", sample.department);
+    }
+
+    // Gauges read whichever stats are live, so they survive a backfill swapping them
+    private void registerGauges(String dimension, String key) {
+        if (!registeredGauges.add(dimension + ":" + key)) {
+            return;
+        }
+        for (double quantile : QUANTILES) {
+            Gauge.builder("odms.sla.time.in.stage", () -> {
+                        LatencyHistogram histogram = live.histograms(dimension).get(key);
+                        return histogram == null ? 0 : histogram.percentile(quantile);
+                    })
+                    .baseUnit("seconds")
+                    .tag(dimension, key)
+                    .tag("quantile", String.valueOf(quantile))
+                    .description("Time a request waited in an approval stage")
+                    .register(meterRegistry);
+        }
+        Gauge.builder("odms.sla.time.in.stage.count", () -> {
+                    LatencyHistogram histogram = live.histograms(dimension).get(key);
+                    return histogram == null ? 0 : histogram.getCount();
+                })
+                .tag(dimension, key)
+                .register(meterRegistry);
+    }
+
+    private static String stageLabel(String approverRole) {
+        ApprovalStage stage = ApprovalStage.forRole(approverRole);
+        return stage != null ? stage.name() : approverRole;
+    }
+
+    private static String departmentLabel(String department) {
+        return department == null || department.isBlank() ? NO_DEPARTMENT : department;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        backfillExecutor.shutdownNow();
+    }
+
+    private static final class Sample {
+        private final String stage;
+        private final String approver;
+        private final String department;
+        private final long seconds;
+
+        Sample(String stage, String approver, String department, long seconds) {
+            this.stage = stage;
+            this.approver = approver;
+            this.department = department;
+            this.seconds = seconds;
+        }
+    }
+
+    private static final class SlaStats {
+        private final Map<String, LatencyHistogram> byStage = new ConcurrentHashMap<>();
+        private final Map<String, LatencyHistogram> byApprover = new ConcurrentHashMap<>();
+        private final Map<String, LatencyHistogram> byDepartment = new ConcurrentHashMap<>();
+        // Highest history ID of each shard when its replay started; a shard not reached yet replays everything
+        private final Map<String, Long> historyIdCutoffs = new ConcurrentHashMap<>();
+
+        boolean isReplayed(String shard, long historyId) {
+            Long cutoff = historyIdCutoffs.get(shard);
+            return cutoff == null || historyId <= cutoff;
+        }
+
+        void add(Sample sample) {
+            byStage.computeIfAbsent(sample.stage, k -> new LatencyHistogram()).record(sample.seconds);
+            byApprover.computeIfAbsent(sample.approver, k -> new LatencyHistogram()).record(sample.seconds);
+            byDepartment.computeIfAbsent(sample.department, k -> new LatencyHistogram()).record(sample.seconds);
+        }
+
+        Map<String, LatencyHistogram> histograms(String dimension) {
+            return "stage".equals(dimension) ? byStage : byDepartment;
+        }
+
+        void forEachKey(BiConsumer<String, String> action) {
+            byStage.keySet().forEach(key -> action.accept("stage", key));
+            byDepartment.keySet().forEach(key -> action.accept("department", key));
+        }
+
+        List<SlaRow> rows(Map<String, LatencyHistogram> histograms) {
+            List<SlaRow> rows = new ArrayList<>();
+            histograms.forEach((key, histogram) -> rows.add(new SlaRow(key, histogram.getCount(),
+                    histogram.percentile(0.5), histogram.percentile(0.9), histogram.percentile(0.99), histogram.getMax())));
+            // Slowest first: that is where the bottleneck is
+            rows.sort(Comparator.comparingLong(SlaRow::getP90Seconds).reversed().thenComparing(SlaRow::getKey));
+            return rows;
+        }
+    }
+
+    public static class SlaRow {
+        private final String key;
+        private final long count;
+        private final long p50Seconds;
+        private final long p90Seconds;
+        private final long p99Seconds;
+        private final long maxSeconds;
+
+        public SlaRow(String key, long count, long p50Seconds, long p90Seconds, long p99Seconds, long maxSeconds) {
+            this.key = key;
+            this.count = count;
+            this.p50Seconds = p50Seconds;
+            this.p90Seconds = p90Seconds;
+            this.p99Seconds = p99Seconds;
+            this.maxSeconds = maxSeconds;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getP50Seconds() {
+            return p50Seconds;
+        }
+
+        public long getP90Seconds() {
+            return p90Seconds;
+        }
+
+        public long getP99Seconds() {
+            return p99Seconds;
+        }
+
+        public long getMaxSeconds() {
+            return maxSeconds;
+        }
+
+        public String getP50() {
+            return formatDuration(p50Seconds);
+        }
+
+        public String getP90() {
+            return formatDuration(p90Seconds);
+        }
+
+        public String getP99() {
+            return formatDuration(p99Seconds);
+        }
+
+        public String getMax() {
+            return formatDuration(maxSeconds);
+        }
+
+        // Two most significant units, e.g. "2d 4h", "3h 12m", "45s"
+        static String formatDuration(long seconds) {
+            long days = seconds / 86_400;
+            long hours = seconds % 86_400 / 3_600;
+            long minutes = seconds % 3_600 / 60;
+            if (days > 0) {
+                return days + "d " + hours + "h";
+            }
+            if (hours > 0) {
+                return hours + "h " + minutes + "m";
+            }
+            if (minutes > 0) {
+                return minutes + "m " + seconds % 60 + "s";
+            }
+            return seconds + "s";
+        }
+    }
+
+    public static class BackfillStatus {
+        private final LocalDateTime finishedAt;
+        private final long requests;
+        private final long samples;
+        private final long durationMs;
+        private final String failureMessage;
+
+        public BackfillStatus(LocalDateTime finishedAt, long requests, long samples, long durationMs, String failureMessage) {
+            this.finishedAt = finishedAt;
+            this.requests = requests;
+            this.samples = samples;
+            this.durationMs = durationMs;
+            this.failureMessage = failureMessage;
+        }
+
+        public LocalDateTime getFinishedAt() {
+            return finishedAt;
+        }
+
+        public long getRequests() {
+            return requests;
+        }
+
+        public long getSamples() {
+            return samples;
+        }
+
+        public long getDurationMs() {
+            return durationMs;
+        }
+
+        public String getFailureMessage() {
+            return failureMessage;
+        }
+    }
+
+    public static class SlaReport {
+        private final List<SlaRow> byStage;
+        private final List<SlaRow> byDepartment;
+        private final List<SlaRow> byApprover;
+        private final boolean backfillRunning;
+        private final BackfillStatus lastBackfill;
+
+        public SlaReport(List<SlaRow> byStage, List<SlaRow> byDepartment, List<SlaRow> byApprover,
+                         boolean backfillRunning, BackfillStatus lastBackfill) {
+            this.byStage = byStage;
+            this.byDepartment = byDepartment;
+            this.byApprover = byApprover;
+            this.backfillRunning = backfillRunning;
+            this.lastBackfill = lastBackfill;
+        }
+
+        public List<SlaRow> getByStage() {
+            return byStage;
+        }
+
+        public List<SlaRow> getByDepartment() {
+            return byDepartment;
+        }
+
+        public List<SlaRow> getByApprover() {
+            return byApprover;
+        }
+
+        public boolean isBackfillRunning() {
+            return backfillRunning;
+        }
+
+        public BackfillStatus getLastBackfill() {
+            return lastBackfill;
+        }
+    }
+}
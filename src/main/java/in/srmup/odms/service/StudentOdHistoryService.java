@@ -0,0 +1,132 @@
+package in.srmup.odms.service;
+
+import in.srmup.odms.model.StudentMaster;
+import in.srmup.odms.repository.ParticipantRepository;
+import in.srmup.odms.repository.StudentMasterRepository;
+import in.srmup.odms.repository.StudentOdHistoryRow;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * A student's OD history, read from the participant(reg_no, event_request_id) index
+ * instead of walking every request's participant list. Alongside each page it reports the
+ * stored {@link StudentMaster#getOdLeaveCount()} and the total recomputed from APPROVED
+ * requests, so a counter that drifted (e.g. urgent approvals, which skip the HOD step that
+ * increments it) is visible.
+ */
+@Service
+public class StudentOdHistoryService {
+
+    public static final int DEFAULT_PAGE_SIZE = 25;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    @Autowired
+    private ParticipantRepository participantRepository;
+
+    @Autowired
+    private StudentMasterRepository studentMasterRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    /**
+     * Returns null when the reg number is neither a known student nor a participant of any request.
+     */
+    public OdHistoryPage getHistory(String regNo, LocalDate beforeDate, Long beforeId, Integer limit) {
+        String normalizedRegNo = StudentMaster.normalizeRegistrationNumber(regNo);
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        if (beforeDate != null && beforeId == null) {
+            throw new IllegalArgumentException("beforeId is required together with beforeDate");
+        }
+        // The history lives on the campus shard of the student's department
+        return shardRouter.inShard(shardRouter.shardForStudents(List.of(normalizedRegNo)),
+                () -> loadHistory(normalizedRegNo, beforeDate, beforeId, pageSize));
+    }
+
+    private OdHistoryPage loadHistory(String normalizedRegNo, LocalDate beforeDate, Long beforeId, int pageSize) {
+        StudentMaster student = studentMasterRepository.findById(normalizedRegNo).orElse(null);
+        // One extra row tells us whether there is a next page
+        List<StudentOdHistoryRow> rows = participantRepository.findOdHistory(
+                normalizedRegNo, beforeDate, beforeId, PageRequest.of(0, pageSize + 1));
+        if (student == null && rows.isEmpty() && beforeDate == null) {
+            return null;
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+        StudentOdHistoryRow last = hasMore ? rows.get(rows.size() - 1) : null;
+
+        long recomputed = participantRepository.findApprovedOds(normalizedRegNo).stream()
+                .mapToLong(StudentOdHistoryRow::getDaysCounted)
+                .sum();
+
+        return new OdHistoryPage(
+                normalizedRegNo,
+                student != null ? student.getName() : null,
+                student != null ? student.getOdLeaveCount() : null,
+                recomputed,
+                rows,
+                last != null ? last.getStartDate() : null,
+                last != null ? last.getRequestId() : null);
+    }
+
+    public static class OdHistoryPage {
+        private final String regNo;
+        private final String studentName;
+        private final Integer storedOdLeaveCount;
+        private final long recomputedOdLeaveCount;
+        private final List<StudentOdHistoryRow> rows;
+        private final LocalDate nextBeforeDate;
+        private final Long nextBeforeId;
+
+        public OdHistoryPage(String regNo, String studentName, Integer storedOdLeaveCount, long recomputedOdLeaveCount,
+                             List<StudentOdHistoryRow> rows, LocalDate nextBeforeDate, Long nextBeforeId) {
+            this.regNo = regNo;
+            this.studentName = studentName;
+            this.storedOdLeaveCount = storedOdLeaveCount;
+            this.recomputedOdLeaveCount = recomputedOdLeaveCount;
+            this.rows = rows;
+            this.nextBeforeDate = nextBeforeDate;
+            this.nextBeforeId = nextBeforeId;
+        }
+
+        public String getRegNo() {
+            return regNo;
+        }
+
+        public String getStudentName() {
+            return studentName;
+        }
+
+        public Integer getStoredOdLeaveCount() {
+            return storedOdLeaveCount;
+        }
+
+        public long getRecomputedOdLeaveCount() {
+            return recomputedOdLeaveCount;
+        }
+
+        // True when the stored counter disagrees with the approved requests (or the student is no longer in the master data)
+        public boolean isCountMismatch() {
+            return storedOdLeaveCount == null || storedOdLeaveCount != recomputedOdLeaveCount;
+        }
+
+        public List<StudentOdHistoryRow> getRows() {
+            return rows;
+        }
+
+        public LocalDate getNextBeforeDate() {
+            return nextBeforeDate;
+        }
+
+        public Long getNextBeforeId() {
+            return nextBeforeId;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package in.srmup.odms.service;
+
+import in.srmup.odms.model.StudentMaster;
+import in.srmup.odms.repository.StudentMasterRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Registration-number autocomplete. A class filling in the form together sends the same
+ * prefixes at the same moment, so lookups are single-flight: the first caller for a prefix
+ * runs the query and every concurrent caller for that prefix waits for its result instead of
+ * running its own. Results are then kept for {@code app.student-search.cache-ttl-seconds}
+ * to absorb the stragglers. With sharding, the lookup asks every campus shard in parallel and
+ * merges their first matches; a campus that doesn't answer is left out, and that partial
+ * result is not cached. Counted in {@code odms.student.search} by outcome
+ * (computed, coalesced, cached).
+ */
+@Service
+public class StudentSearchService {
+
+    public static final int MAX_SUGGESTIONS = 10;
+    private static final int MAX_CACHED_PREFIXES = 5000;
+
+    private final StudentMasterRepository studentMasterRepository;
+    private final ShardRouter shardRouter;
+    private final long cacheTtlNanos;
+    private final Map<String, CompletableFuture<List<StudentSuggestion>>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, CachedResult> cache = new ConcurrentHashMap<>();
+    // Bumped by invalidate(); a lookup that started before it must not cache its (possibly stale) result
+    private final AtomicLong generation = new AtomicLong();
+    private final Counter computed;
+    private final Counter coalesced;
+    private final Counter cached;
+
+    public StudentSearchService(StudentMasterRepository studentMasterRepository, ShardRouter shardRouter, MeterRegistry meterRegistry,
+                                @Value("${app.student-search.cache-ttl-seconds:30}") long cacheTtlSeconds) {
+        this.studentMasterRepository = studentMasterRepository;
+        this.shardRouter = shardRouter;
+        this.cacheTtlNanos = TimeUnit.SECONDS.toNanos(cacheTtlSeconds);
+        this.computed = searchCounter(meterRegistry, "computed");
+        this.coalesced = searchCounter(meterRegistry, "coalesced");
+        this.cached = searchCounter(meterRegistry, "cached");
+    }
+
+    private static Counter searchCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("odms.student.search")
+                .tag("outcome", outcome)
+                .description("Student autocomplete lookups by how they were answered")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Up to {@link #MAX_SUGGESTIONS} students whose registration number starts with the query
+     * (case-insensitive), in registration-number order. The list is shared; do not modify it.
+     */
+    public List<StudentSuggestion> search(String query) {
+        String prefix = query == null ? "" : StudentMaster.normalizeRegistrationNumber(query);
+        if (prefix.isEmpty()) {
+            return List.of();
+        }
+
+        CachedResult hit = cache.get(prefix);
+        if (hit != null && hit.expiresAtNanos - System.nanoTime() > 0) {
+            cached.increment();
+            return hit.suggestions;
+        }
+
+        CompletableFuture<List<StudentSuggestion>> mine = new CompletableFuture<>();
+        CompletableFuture<List<StudentSuggestion>> leader = inFlight.putIfAbsent(prefix, mine);
+        if (leader != null) {
+            coalesced.increment();
+            try {
+                return leader.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        computed.increment();
+        long startGeneration = generation.get();
+        try {
+            Map<String, List<StudentMaster>> byShard = shardRouter.fanOutAvailable(shard -> studentMasterRepository
+                    .findTop10ByRegistrationNumberStartingWithOrderByRegistrationNumberAsc(prefix));
+            List<StudentSuggestion> suggestions = byShard.values().stream()
+                    .flatMap(List::stream)
+                    .sorted(Comparator.comparing(StudentMaster::getRegistrationNumber))
+                    .limit(MAX_SUGGESTIONS)
+                    .map(s -> new StudentSuggestion(s.getRegistrationNumber(), s.getName(), s.getBranch(), s.getAcademicYear()))
+                    .collect(Collectors.toUnmodifiableList());
+            // Cached before the in-flight entry goes, so a caller arriving in between finds one or the other
+            if (generation.get() == startGeneration && byShard.size() == shardRouter.getShards().size()) {
+                putInCache(prefix, suggestions);
+            }
+            mine.complete(suggestions);
+            return suggestions;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(prefix, mine);
+        }
+    }
+
+    /**
+     * Drops every cached result; called when the student master data changes.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        cache.clear();
+    }
+
+    private void putInCache(String prefix, List<StudentSuggestion> suggestions) {
+        long now = System.nanoTime();
+        if (cache.size() >= MAX_CACHED_PREFIXES) {
+            cache.values().removeIf(entry -> entry.expiresAtNanos - now <= 0);
+            if (cache.size() >= MAX_CACHED_PREFIXES) {
+                cache.clear();
+            }
+        }
+        cache.put(prefix, new CachedResult(suggestions, now + cacheTtlNanos));
+    }
+
+    private static final class CachedResult {
+        private final List<StudentSuggestion> suggestions;
+        private final long expiresAtNanos;
+
+        CachedResult(List<StudentSuggestion> suggestions, long expiresAtNanos) {
+            this.suggestions = suggestions;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+
+    // One autocomplete entry
+    public static class StudentSuggestion {
+        private final String regNo;
+        private final String name;
+        private final String branch;
+        private final Integer year;
+
+        public StudentSuggestion(String regNo, String name, String branch, Integer year) {
+            this.regNo = regNo;
+            this.name = name;
+            this.branch = branch;
+            this.year = year;
+        }
+
+        public String getRegNo() {
+            return regNo;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getBranch() {
+            return branch;
+        }
+
+        public Integer getYear() {
+            return year;
+        }
+    }
+}
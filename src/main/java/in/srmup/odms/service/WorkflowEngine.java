@@ -0,0 +1,271 @@
+package in.srmup.odms.service;
+
+import in.srmup.odms.model.ApprovalStage;
+import in.srmup.odms.model.EventRequest;
+import in.srmup.odms.model.RequestStatus;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * The approval workflow as data. Each workflow is a chain of steps written like
+ * {@code COORDINATOR,WELFARE+HOD}: steps are separated by commas and "+" joins stages that
+ * approve in parallel, the request moving on once all of them have approved. Chains are
+ * compiled at startup into an {@link EnumMap} from status to step, so every approval check is
+ * one map lookup and a bit test on {@link EventRequest#getCompletedStages()}.
+ * <p>
+ * {@code app.workflow.default} applies to every request; {@code app.workflow.departments[<name>]}
+ * overrides it for requests whose participants all belong to that department.
+ */
+@Service
+public class WorkflowEngine {
+
+    public static final String DEFAULT_CHAIN = "COORDINATOR,WELFARE,HOD";
+
+    private final Workflow defaultWorkflow;
+    private final Map<String, Workflow> workflowsByDepartment = new HashMap<>();
+    // Statuses in which a stage may act, and statuses that come after its step, across all workflows
+    private final EnumMap<ApprovalStage, EnumSet<RequestStatus>> actionableStatuses = new EnumMap<>(ApprovalStage.class);
+    private final EnumMap<ApprovalStage, EnumSet<RequestStatus>> downstreamStatuses = new EnumMap<>(ApprovalStage.class);
+
+    public WorkflowEngine(Environment environment) {
+        Binder binder = Binder.get(environment);
+        this.defaultWorkflow = Workflow.compile(binder.bind("app.workflow.default", String.class).orElse(DEFAULT_CHAIN));
+        binder.bind("app.workflow.departments", Bindable.mapOf(String.class, String.class))
+                .orElse(Map.of())
+                .forEach((department, chain) -> workflowsByDepartment.put(departmentKey(department), Workflow.compile(chain)));
+
+        for (ApprovalStage stage : ApprovalStage.values()) {
+            actionableStatuses.put(stage, EnumSet.noneOf(RequestStatus.class));
+            downstreamStatuses.put(stage, EnumSet.noneOf(RequestStatus.class));
+        }
+        List<Workflow> all = new ArrayList<>(workflowsByDepartment.values());
+        all.add(defaultWorkflow);
+        for (Workflow workflow : all) {
+            workflow.collectStatuses(actionableStatuses, downstreamStatuses);
+        }
+
+        System.out.println("Approval workflow: default " + defaultWorkflow
+                + (workflowsByDepartment.isEmpty() ? "" : ", per department " + workflowsByDepartment));
+    }
+
+    public Workflow workflowFor(EventRequest request) {
+        return workflowFor(request.getDepartment());
+    }
+
+    private Workflow workflowFor(String department) {
+        return workflowsByDepartment.getOrDefault(departmentKey(department), defaultWorkflow);
+    }
+
+    public RequestStatus initialStatus(EventRequest request) {
+        return workflowFor(request).initialStatus;
+    }
+
+    public boolean canApprove(EventRequest request, String role) {
+        ApprovalStage stage = ApprovalStage.forRole(role);
+        Step step = workflowFor(request).steps.get(request.getStatus());
+        return stage != null && step != null && step.awaits(stage, request.getCompletedStages());
+    }
+
+    // Approvers reject only what is waiting for them; an administrator can reject at any stage
+    public boolean canReject(EventRequest request, String role) {
+        return "ROLE_ADMIN".equals(role) || canApprove(request, role);
+    }
+
+    /**
+     * The status the request will have after this role approves it: the next step's status,
+     * or the current one while other stages of a parallel step are still outstanding.
+     *
+     * @throws IllegalStateException if the role may not approve the request now
+     */
+    public RequestStatus nextStatus(EventRequest request, String role) {
+        ApprovalStage stage = ApprovalStage.forRole(role);
+        if (stage == null) {
+            throw new IllegalStateException("User with role " + role + " does not have permission to approve requests.");
+        }
+        Step step = workflowFor(request).steps.get(request.getStatus());
+        if (step == null || !step.awaits(stage, request.getCompletedStages())) {
+            throw new IllegalStateException(stage.getDisplayName() + " cannot approve this request now. Current status: "
+                    + request.getStatus() + (step == null ? "" : ", awaiting " + describe(step.remaining(request.getCompletedStages()))));
+        }
+        return step.isCompletedBy(request.getCompletedStages() | stage.bit()) ? step.next : request.getStatus();
+    }
+
+    /**
+     * Records the role's approval on the request (status and completed stages); call after
+     * {@link #nextStatus} has accepted it.
+     */
+    public void recordApproval(EventRequest request, String role) {
+        RequestStatus next = nextStatus(request, role);
+        if (next == request.getStatus()) {
+            request.setCompletedStages(request.getCompletedStages() | ApprovalStage.forRole(role).bit());
+        } else {
+            request.setStatus(next);
+            request.setCompletedStages(0);
+            request.setStageEnteredAt(LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Stages the request is still waiting for, empty once it is final.
+     */
+    public List<ApprovalStage> pendingStages(EventRequest request) {
+        return pendingStages(request.getDepartment(), request.getStatus(), request.getCompletedStages());
+    }
+
+    // Same, from the columns alone (for projections that don't load the entity)
+    public List<ApprovalStage> pendingStages(String department, RequestStatus status, int completedStages) {
+        Step step = workflowFor(department).steps.get(status);
+        return step == null ? List.of() : step.remaining(completedStages);
+    }
+
+    /**
+     * Stages of the step after the one the request is waiting in, empty when that is the last
+     * step (or the request is not pending).
+     */
+    public List<ApprovalStage> nextStepStages(String department, RequestStatus status) {
+        Workflow workflow = workflowFor(department);
+        Step step = workflow.steps.get(status);
+        Step following = step == null ? null : workflow.steps.get(step.next);
+        return following == null ? List.of() : following.remaining(0);
+    }
+
+    // Candidate statuses for a role's "pending my action" list; filter the requests with canApprove
+    public Set<RequestStatus> actionableStatuses(String role) {
+        ApprovalStage stage = ApprovalStage.forRole(role);
+        return stage == null ? EnumSet.noneOf(RequestStatus.class) : actionableStatuses.get(stage);
+    }
+
+    // Statuses a request can be in after the role's step (or while the rest of its parallel step is outstanding)
+    public Set<RequestStatus> downstreamStatuses(String role) {
+        ApprovalStage stage = ApprovalStage.forRole(role);
+        return stage == null ? EnumSet.noneOf(RequestStatus.class) : downstreamStatuses.get(stage);
+    }
+
+    public static String describe(Collection<ApprovalStage> stages) {
+        return stages.stream().map(ApprovalStage::getDisplayName).collect(Collectors.joining(" and "));
+    }
+
+    private static String departmentKey(String department) {
+        return department == null ? "" : department.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * One compiled chain: the step waiting in each status.
+     */
+    public static final class Workflow {
+        private final EnumMap<RequestStatus, Step> steps = new EnumMap<>(RequestStatus.class);
+        private final RequestStatus initialStatus;
+        private final String chain;
+
+        Workflow(List<Integer> stepMasks, String chain) {
+            this.chain = chain;
+            List<RequestStatus> statuses = new ArrayList<>();
+            for (int mask : stepMasks) {
+                statuses.add(Integer.bitCount(mask) == 1
+                        ? ApprovalStage.values()[Integer.numberOfTrailingZeros(mask)].getPendingStatus()
+                        : RequestStatus.PENDING_PARALLEL_APPROVAL);
+            }
+            if (new HashSet<>(statuses).size() != statuses.size()) {
+                throw new IllegalStateException("Workflow '" + chain + "' may contain only one parallel step");
+            }
+            for (int i = 0; i < statuses.size(); i++) {
+                RequestStatus next = i + 1 < statuses.size() ? statuses.get(i + 1) : RequestStatus.APPROVED;
+                steps.put(statuses.get(i), new Step(stepMasks.get(i), next));
+            }
+            this.initialStatus = statuses.get(0);
+        }
+
+        static Workflow compile(String chain) {
+            List<Integer> stepMasks = new ArrayList<>();
+            int seen = 0;
+            for (String stepSpec : chain.split(",")) {
+                int mask = 0;
+                for (String stageName : stepSpec.split("\\+")) {
+                    ApprovalStage stage;
+                    try {
+                        stage = ApprovalStage.valueOf(stageName.trim().toUpperCase(Locale.ROOT));
+                    } catch (IllegalArgumentException e) {
+                        throw new IllegalStateException("Unknown approval stage '" + stageName.trim() + "' in workflow '" + chain
+                                + "'; expected one of " + Arrays.toString(ApprovalStage.values()));
+                    }
+                    if ((seen & stage.bit()) != 0) {
+                        throw new IllegalStateException("Approval stage " + stage + " appears twice in workflow '" + chain + "'");
+                    }
+                    seen |= stage.bit();
+                    mask |= stage.bit();
+                }
+                stepMasks.add(mask);
+            }
+            return new Workflow(stepMasks, chain.replace(" ", ""));
+        }
+
+        private void collectStatuses(EnumMap<ApprovalStage, EnumSet<RequestStatus>> actionable,
+                                     EnumMap<ApprovalStage, EnumSet<RequestStatus>> downstream) {
+            int before = 0; // stages of the steps already walked
+            for (Map.Entry<RequestStatus, Step> entry : stepsInOrder()) {
+                for (ApprovalStage stage : ApprovalStage.values()) {
+                    if ((entry.getValue().requiredMask & stage.bit()) != 0) {
+                        actionable.get(stage).add(entry.getKey());
+                        if (Integer.bitCount(entry.getValue().requiredMask) > 1) {
+                            downstream.get(stage).add(entry.getKey());
+                        }
+                    } else if ((before & stage.bit()) != 0) {
+                        downstream.get(stage).add(entry.getKey());
+                    }
+                }
+                before |= entry.getValue().requiredMask;
+            }
+        }
+
+        private List<Map.Entry<RequestStatus, Step>> stepsInOrder() {
+            List<Map.Entry<RequestStatus, Step>> ordered = new ArrayList<>();
+            for (RequestStatus status = initialStatus; steps.containsKey(status); status = steps.get(status).next) {
+                ordered.add(Map.entry(status, steps.get(status)));
+            }
+            return ordered;
+        }
+
+        public RequestStatus getInitialStatus() {
+            return initialStatus;
+        }
+
+        @Override
+        public String toString() {
+            return chain;
+        }
+    }
+
+    private static final class Step {
+        private final int requiredMask;
+        private final RequestStatus next;
+
+        Step(int requiredMask, RequestStatus next) {
+            this.requiredMask = requiredMask;
+            this.next = next;
+        }
+
+        boolean awaits(ApprovalStage stage, int completedStages) {
+            return (requiredMask & ~completedStages & stage.bit()) != 0;
+        }
+
+        boolean isCompletedBy(int completedStages) {
+            return (requiredMask & ~completedStages) == 0;
+        }
+
+        List<ApprovalStage> remaining(int completedStages) {
+            List<ApprovalStage> remaining = new ArrayList<>();
+            for (ApprovalStage stage : ApprovalStage.values()) {
+                if (awaits(stage, completedStages)) {
+                    remaining.add(stage);
+                }
+            }
+            return remaining;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+-- Switches the IDENTITY primary keys of an existing H2 (file) database to the pooled
+-- sequences the entities now use. Run once with the application stopped, e.g.
+--   java -cp h2.jar org.h2.tools.RunScript -url jdbc:h2:file:./odms -user sa -script pooled-sequence-ids-h2.sql
+-- Each sequence restarts at MAX(id) + 50: Hibernate's pooled optimizer hands out the 50 IDs
+-- ending at the value it reads, so the first block starts right after the existing rows.
+-- In-memory databases created with ddl-auto need nothing; Hibernate creates the sequences.
+
+CREATE SEQUENCE IF NOT EXISTS event_request_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE event_request_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM event_request);
+ALTER TABLE event_request ALTER COLUMN id DROP IDENTITY;
+
+CREATE SEQUENCE IF NOT EXISTS participant_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE participant_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM participant);
+ALTER TABLE participant ALTER COLUMN id DROP IDENTITY;
+
+CREATE SEQUENCE IF NOT EXISTS approval_history_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE approval_history_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM approval_history);
+ALTER TABLE approval_history ALTER COLUMN id DROP IDENTITY;
+
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE users_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM users);
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY;
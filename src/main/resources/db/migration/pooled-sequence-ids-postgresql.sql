@@ -0,0 +1,30 @@
+-- Switches the IDENTITY primary keys of an existing PostgreSQL database to the pooled
+-- sequences the entities now use. Run once with the application stopped, e.g.
+--   psql "$DATABASE_URL" -f pooled-sequence-ids-postgresql.sql
+-- Each sequence is set so its next value is MAX(id) + 50: Hibernate's pooled optimizer hands
+-- out the 50 IDs ending at the value it reads, so the first block starts right after the
+-- existing rows.
+
+BEGIN;
+
+CREATE SEQUENCE IF NOT EXISTS event_request_seq INCREMENT BY 50;
+SELECT setval('event_request_seq', COALESCE((SELECT MAX(id) FROM event_request), 0) + 50, false);
+ALTER TABLE event_request ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE event_request ALTER COLUMN id DROP DEFAULT;
+
+CREATE SEQUENCE IF NOT EXISTS participant_seq INCREMENT BY 50;
+SELECT setval('participant_seq', COALESCE((SELECT MAX(id) FROM participant), 0) + 50, false);
+ALTER TABLE participant ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE participant ALTER COLUMN id DROP DEFAULT;
+
+CREATE SEQUENCE IF NOT EXISTS approval_history_seq INCREMENT BY 50;
+SELECT setval('approval_history_seq', COALESCE((SELECT MAX(id) FROM approval_history), 0) + 50, false);
+ALTER TABLE approval_history ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE approval_history ALTER COLUMN id DROP DEFAULT;
+
+CREATE SEQUENCE IF NOT EXISTS users_seq INCREMENT BY 50;
+SELECT setval('users_seq', COALESCE((SELECT MAX(id) FROM users), 0) + 50, false);
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE users ALTER COLUMN id DROP DEFAULT;
+
+COMMIT;
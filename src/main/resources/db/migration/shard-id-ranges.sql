@@ -0,0 +1,13 @@
+-- Moves the ID sequences of a new campus shard into its own range, so request, participant,
+-- history and user IDs never collide with another shard's. Run once against the shard's
+-- database after creating its schema, before the application first writes to it.
+-- Shard N (its position in app.sharding.shards, the default shard being 0) starts at
+-- N * 100000000 + 50: Hibernate's pooled optimizer hands out the 50 IDs ending at the value it
+-- reads. The statements below are for shard 1; for shard N replace 100000050 with
+-- N * 100000000 + 50. The default shard keeps its sequences as they are.
+-- Works on H2 and PostgreSQL.
+
+ALTER SEQUENCE event_request_seq RESTART WITH 100000050;
+ALTER SEQUENCE participant_seq RESTART WITH 100000050;
+ALTER SEQUENCE approval_history_seq RESTART WITH 100000050;
+ALTER SEQUENCE users_seq RESTART WITH 100000050;
@@ -0,0 +1,18 @@
+-- Upper-cases the registration numbers stored before imports and submitted forms normalized
+-- them, so prefix autocomplete (an index range scan on the stored value) and the exact
+-- lookups find every student. Run once with the application stopped; works on H2 and
+-- PostgreSQL. With sharding, run it against every campus shard.
+-- The first statement lists numbers that would collide once upper-cased (e.g. "ra22" and
+-- "RA22" both stored); merge or delete those student_master rows by hand before running the
+-- updates, which otherwise fail on the primary key.
+
+SELECT UPPER(registration_number) AS registration_number, COUNT(*) AS stored_as
+FROM student_master
+GROUP BY UPPER(registration_number)
+HAVING COUNT(*) > 1;
+
+UPDATE student_master SET registration_number = UPPER(registration_number)
+WHERE registration_number <> UPPER(registration_number);
+
+UPDATE participant SET reg_no = UPPER(TRIM(reg_no))
+WHERE reg_no <> UPPER(TRIM(reg_no));
@@ -0,0 +1,64 @@
+package in.srmup.odms.config.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final int SAMPLES = 200_000;
+
+    // Approver pages: mostly fast detail pages, one in ten a slow dashboard
+    @Test
+    void limitHoldsUnderSlowAndFastPagesMixed() {
+        Random random = new Random(41);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("approver", 20, 10, 100, 2.0, 0.9);
+        run(limiter, () -> random.nextInt(10) == 0 ? millis(40) : millis(1));
+        assertTrue(limiter.getLimit() >= 20, "limit sank to " + limiter.getLimit());
+    }
+
+    // Student search: cache hits in microseconds, a few percent computed in milliseconds
+    @Test
+    void limitHoldsUnderCacheHitsAndMisses() {
+        Random random = new Random(45);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("student-search", 20, 4, 60, 2.0, 0.9);
+        run(limiter, () -> random.nextInt(100) < 3 ? millis(2) : TimeUnit.MICROSECONDS.toNanos(20));
+        assertTrue(limiter.getLimit() >= 20, "limit sank to " + limiter.getLimit());
+    }
+
+    // The same mix, then everything slowing down fivefold: the limit has to come down
+    @Test
+    void limitFallsWhenLatencyRisesAcrossTheBoard() {
+        Random random = new Random(7);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("approver", 20, 10, 100, 2.0, 0.9);
+        run(limiter, () -> random.nextInt(10) == 0 ? millis(40) : millis(1));
+        int before = limiter.getLimit();
+        run(limiter, () -> random.nextInt(10) == 0 ? millis(200) : millis(5), 2_000);
+        assertTrue(limiter.getLimit() < before, "limit stayed at " + limiter.getLimit());
+    }
+
+    // Keeps the limiter saturated, so the limit is always in use and free to grow
+    private static void run(AdaptiveConcurrencyLimiter limiter, LongSupplier latency) {
+        run(limiter, latency, SAMPLES);
+    }
+
+    private static void run(AdaptiveConcurrencyLimiter limiter, LongSupplier latency, int samples) {
+        for (int i = 0; i < samples; i++) {
+            while (limiter.tryAcquire()) {
+                // fill every free slot
+            }
+            limiter.release(latency.getAsLong(), false);
+        }
+        while (limiter.getInFlight() > 0) {
+            limiter.release(millis(1), false);
+        }
+    }
+
+    private static long millis(long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+}
@@ -0,0 +1,192 @@
+package in.srmup.odms.loadtest;
+
+import in.srmup.odms.model.EventRequest;
+import in.srmup.odms.model.Participant;
+import in.srmup.odms.model.RequestStatus;
+import jakarta.persistence.*;
+import org.h2.tools.Server;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Saving OD requests with many participants through Hibernate: look-alike entities mapped
+ * with IDENTITY, as EventRequest and Participant were before (one INSERT and generated-key
+ * read per row), against the real entities and their pooled sequences (IDs from a block of
+ * 50, INSERTs sent as JDBC batches). Excluded from the normal build; run with
+ * <pre>./mvnw test -Ploadtest -Dtest=IdBatchingBenchmark [-Dbenchmark.requests=50 -Dbenchmark.participants=300]</pre>
+ * The database is H2 behind its TCP server on loopback, so every statement is a real round
+ * trip as it would be to PostgreSQL; {@code -Dbenchmark.tcp=false} uses the in-memory
+ * database directly, where round trips cost almost nothing.
+ */
+@Tag("loadtest")
+@SpringBootTest(properties = {"spring.jpa.show-sql=false", "app.warmup.enabled=false"})
+@ActiveProfiles("dev")
+class IdBatchingBenchmark {
+
+    private static final int REQUESTS = Integer.getInteger("benchmark.requests", 50);
+    private static final int PARTICIPANTS = Integer.getInteger("benchmark.participants", 300);
+    private static final int ROUNDS = Integer.getInteger("benchmark.rounds", 3);
+    private static final boolean TCP = Boolean.parseBoolean(System.getProperty("benchmark.tcp", "true"));
+
+    private static Server tcpServer;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @DynamicPropertySource
+    static void databaseOverTcp(DynamicPropertyRegistry registry) throws SQLException {
+        if (TCP) {
+            tcpServer = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+            registry.add("spring.datasource.url",
+                    () -> "jdbc:h2:tcp://localhost:" + tcpServer.getPort() + "/mem:idbenchmark;DB_CLOSE_DELAY=-1");
+        }
+    }
+
+    @AfterAll
+    static void stopTcpServer() {
+        if (tcpServer != null) {
+            tcpServer.stop();
+        }
+    }
+
+    @Test
+    void compareIdentityAndPooledSequenceInserts() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        int rows = REQUESTS * (PARTICIPANTS + 1);
+
+        long identityNanos = 0;
+        long pooledNanos = 0;
+        long identityStatements = 0;
+        long pooledStatements = 0;
+        // Round 0 warms up the JIT, the connection pool and Hibernate's statement cache
+        for (int round = 0; round <= ROUNDS; round++) {
+            long statementsBefore = statistics.getPrepareStatementCount();
+            long start = System.nanoTime();
+            insertWithIdentity(round);
+            long identity = System.nanoTime() - start;
+            long identityRoundStatements = statistics.getPrepareStatementCount() - statementsBefore;
+
+            statementsBefore = statistics.getPrepareStatementCount();
+            start = System.nanoTime();
+            insertWithPooledSequence(round);
+            long pooled = System.nanoTime() - start;
+            long pooledRoundStatements = statistics.getPrepareStatementCount() - statementsBefore;
+
+            if (round > 0) {
+                identityNanos += identity;
+                pooledNanos += pooled;
+                identityStatements += identityRoundStatements;
+                pooledStatements += pooledRoundStatements;
+            }
+        }
+
+        long identityMs = TimeUnit.NANOSECONDS.toMillis(identityNanos / ROUNDS);
+        long pooledMs = TimeUnit.NANOSECONDS.toMillis(pooledNanos / ROUNDS);
+        System.out.printf("%nID generation benchmark (%s): %d requests x %d participants (%d rows) per round, %d rounds%n",
+                TCP ? "H2 over TCP" : "in-memory H2", REQUESTS, PARTICIPANTS, rows, ROUNDS);
+        System.out.printf("%-28s %12s %10s %12s%n", "Strategy", "Statements", "ms/round", "rows/s");
+        System.out.printf("%-28s %12d %10d %12.0f%n", "IDENTITY (row by row)", identityStatements / ROUNDS, identityMs,
+                rows * 1000.0 / Math.max(1, identityMs));
+        System.out.printf("%-28s %12d %10d %12.0f%n", "Pooled sequence (batched)", pooledStatements / ROUNDS, pooledMs,
+                rows * 1000.0 / Math.max(1, pooledMs));
+        System.out.printf("Speed-up: %.1fx, %.0fx fewer statements%n%n",
+                (double) identityNanos / Math.max(1, pooledNanos), (double) identityStatements / Math.max(1, pooledStatements));
+
+        assertTrue(pooledStatements * 10 < identityStatements, "Participant inserts were not batched");
+    }
+
+    private void insertWithIdentity(int round) {
+        for (int r = 0; r < REQUESTS; r++) {
+            int requestNumber = r;
+            transactionTemplate.executeWithoutResult(status -> {
+                IdentityRequest request = new IdentityRequest();
+                request.eventName = "Benchmark " + round + "-" + requestNumber;
+                request.startDate = LocalDate.now();
+                request.endDate = LocalDate.now();
+                request.status = RequestStatus.SUBMITTED;
+                for (int p = 0; p < PARTICIPANTS; p++) {
+                    IdentityParticipant participant = new IdentityParticipant();
+                    participant.name = "Student " + p;
+                    participant.regNo = String.format("BM%013d", p);
+                    participant.branch = "CSE";
+                    participant.eventRequest = request;
+                    request.participants.add(participant);
+                }
+                entityManager.persist(request);
+            });
+        }
+    }
+
+    private void insertWithPooledSequence(int round) {
+        for (int r = 0; r < REQUESTS; r++) {
+            int requestNumber = r;
+            transactionTemplate.executeWithoutResult(status -> {
+                EventRequest request = new EventRequest();
+                request.setEventName("Benchmark " + round + "-" + requestNumber);
+                request.setStartDate(LocalDate.now());
+                request.setEndDate(LocalDate.now());
+                request.setStatus(RequestStatus.SUBMITTED);
+                for (int p = 0; p < PARTICIPANTS; p++) {
+                    Participant participant = new Participant();
+                    participant.setName("Student " + p);
+                    participant.setRegNo(String.format("BM%013d", p));
+                    participant.setBranch("CSE");
+                    request.addParticipant(participant);
+                }
+                entityManager.persist(request);
+            });
+        }
+    }
+
+    @Entity
+    @Table(name = "bench_identity_request")
+    static class IdentityRequest {
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        Long id;
+        String eventName;
+        LocalDate startDate;
+        LocalDate endDate;
+        @Enumerated(EnumType.STRING)
+        RequestStatus status;
+        @OneToMany(mappedBy = "eventRequest", cascade = CascadeType.ALL)
+        List<IdentityParticipant> participants = new ArrayList<>();
+    }
+
+    @Entity
+    @Table(name = "bench_identity_participant")
+    static class IdentityParticipant {
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        Long id;
+        String name;
+        String regNo;
+        String branch;
+        @ManyToOne(fetch = FetchType.LAZY)
+        @JoinColumn(name = "event_request_id")
+        IdentityRequest eventRequest;
+    }
+}
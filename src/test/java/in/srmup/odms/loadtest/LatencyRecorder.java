@@ -0,0 +1,82 @@
+package in.srmup.odms.loadtest;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size, lock-free latency histogram (log-linear buckets, ~1.5% relative
+ * error). Memory use does not grow with the number of samples, so it can stay
+ * attached for a whole soak run.
+ */
+class LatencyRecorder {
+
+    private static final int LINEAR_BUCKETS = 128;
+    private static final int SUB_BUCKETS = 64;
+    private static final int MAX_SHIFT = 40;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(LINEAR_BUCKETS + MAX_SHIFT * SUB_BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalMicros = new LongAdder();
+
+    void record(long micros, boolean error) {
+        buckets.incrementAndGet(bucketIndex(Math.max(0, micros)));
+        count.increment();
+        totalMicros.add(micros);
+        if (error) {
+            errors.increment();
+        }
+    }
+
+    long count() {
+        return count.sum();
+    }
+
+    long errors() {
+        return errors.sum();
+    }
+
+    double meanMicros() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) totalMicros.sum() / n;
+    }
+
+    /**
+     * @param percentile value in (0, 100]
+     * @return the latency in microseconds at or below which that share of samples fell
+     */
+    long percentileMicros(double percentile) {
+        long n = count.sum();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile / 100.0 * n);
+        long seen = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return bucketValue(i);
+            }
+        }
+        return bucketValue(buckets.length() - 1);
+    }
+
+    static int bucketIndex(long micros) {
+        if (micros < LINEAR_BUCKETS) {
+            return (int) micros;
+        }
+        // Keep the top 7 significant bits: values 64..127 scaled by 2^shift
+        int shift = 63 - Long.numberOfLeadingZeros(micros) - 6;
+        int index = LINEAR_BUCKETS + (shift - 1) * SUB_BUCKETS + (int) ((micros >> shift) - SUB_BUCKETS);
+        return Math.min(index, LINEAR_BUCKETS + MAX_SHIFT * SUB_BUCKETS - 1);
+    }
+
+    static long bucketValue(int index) {
+        if (index < LINEAR_BUCKETS) {
+            return index;
+        }
+        int shift = (index - LINEAR_BUCKETS) / SUB_BUCKETS + 1;
+        long mantissa = (index - LINEAR_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+        return mantissa << shift;
+    }
+}
@@ -0,0 +1,99 @@
+package in.srmup.odms.loadtest;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Per-endpoint latency/throughput table plus heap and GC figures. The app and
+ * the load generator share one JVM, so heap numbers include both; the soak
+ * samples (taken after an explicit GC) are what matter for leak detection.
+ */
+class LoadReport {
+
+    private final ConcurrentMap<String, LatencyRecorder> recorders = new ConcurrentHashMap<>();
+    private final Map<String, long[]> gcAtStart = new LinkedHashMap<>();
+    private final List<long[]> heapSamples = new ArrayList<>();
+    private long startNanos;
+    private long endNanos;
+
+    LatencyRecorder recorder(String endpoint) {
+        return recorders.computeIfAbsent(endpoint, e -> new LatencyRecorder());
+    }
+
+    void start() {
+        recorders.clear();
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcAtStart.put(gc.getName(), new long[]{gc.getCollectionCount(), gc.getCollectionTime()});
+        }
+        startNanos = System.nanoTime();
+    }
+
+    void stop() {
+        endNanos = System.nanoTime();
+    }
+
+    /**
+     * Records retained heap after a full collection, as (elapsed seconds, used bytes).
+     */
+    synchronized void sampleRetainedHeap() {
+        System.gc();
+        long used = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        heapSamples.add(new long[]{(System.nanoTime() - startNanos) / 1_000_000_000L, used});
+        System.out.printf("[soak] t=%ds retained heap=%.1f MB%n", heapSamples.get(heapSamples.size() - 1)[0], used / 1048576.0);
+    }
+
+    String render() {
+        double seconds = (endNanos - startNanos) / 1e9;
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%nLoad test: %.1f s%n", seconds));
+        out.append(String.format("%-22s %9s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+        long total = 0;
+        for (Map.Entry<String, LatencyRecorder> entry : new TreeMap<>(recorders).entrySet()) {
+            LatencyRecorder r = entry.getValue();
+            total += r.count();
+            out.append(String.format("%-22s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    entry.getKey(), r.count(), r.errors(), r.count() / seconds,
+                    r.percentileMicros(50) / 1000.0, r.percentileMicros(95) / 1000.0,
+                    r.percentileMicros(99) / 1000.0, r.percentileMicros(100) / 1000.0));
+        }
+        out.append(String.format("%-22s %9d %7s %9.1f%n", "TOTAL", total, "", total / seconds));
+
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        out.append(String.format("%nHeap: used=%.1f MB committed=%.1f MB max=%.1f MB%n",
+                heap.getUsed() / 1048576.0, heap.getCommitted() / 1048576.0, heap.getMax() / 1048576.0));
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            long[] before = gcAtStart.getOrDefault(gc.getName(), new long[]{0, 0});
+            out.append(String.format("GC %-28s collections=%d time=%d ms%n",
+                    gc.getName(), gc.getCollectionCount() - before[0], gc.getCollectionTime() - before[1]));
+        }
+
+        if (heapSamples.size() >= 2) {
+            out.append(String.format("Retained heap growth: %.2f MB/hour over %d samples%n",
+                    slopeBytesPerSecond() * 3600 / 1048576.0, heapSamples.size()));
+        }
+        return out.toString();
+    }
+
+    // Least-squares slope of retained heap over time
+    private double slopeBytesPerSecond() {
+        int n = heapSamples.size();
+        double meanX = heapSamples.stream().mapToLong(s -> s[0]).average().orElse(0);
+        double meanY = heapSamples.stream().mapToLong(s -> s[1]).average().orElse(0);
+        double num = 0;
+        double den = 0;
+        for (long[] sample : heapSamples) {
+            num += (sample[0] - meanX) * (sample[1] - meanY);
+            den += (sample[0] - meanX) * (sample[0] - meanX);
+        }
+        return n < 2 || den == 0 ? 0 : num / den;
+    }
+}
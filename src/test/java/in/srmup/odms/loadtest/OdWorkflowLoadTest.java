@@ -0,0 +1,228 @@
+package in.srmup.odms.loadtest;
+
+import in.srmup.odms.model.EventRequest;
+import in.srmup.odms.model.FacultyMaster;
+import in.srmup.odms.model.RequestStatus;
+import in.srmup.odms.model.StudentMaster;
+import in.srmup.odms.repository.EventRequestRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Replays the OD workflow against a real server: organizers searching and
+ * submitting, the three-stage approval chain, and faculty/approver dashboards.
+ * Excluded from the normal build; run with
+ * <pre>./mvnw test -Ploadtest [-Dloadtest.users=100 -Dloadtest.duration=120 -Dloadtest.soak=true]</pre>
+ */
+@Tag("loadtest")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("dev")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class OdWorkflowLoadTest {
+
+    private static final int STUDENTS = Integer.getInteger("loadtest.students", 10_000);
+    private static final int FACULTY = Integer.getInteger("loadtest.faculty", 200);
+    private static final int USERS = Integer.getInteger("loadtest.users", 50);
+    private static final boolean SOAK = Boolean.getBoolean("loadtest.soak");
+    private static final int DURATION_SECONDS = Integer.getInteger("loadtest.duration", SOAK ? 1800 : 60);
+    private static final int WARMUP_SECONDS = Integer.getInteger("loadtest.warmup", 10);
+    private static final int SOAK_SAMPLE_SECONDS = Integer.getInteger("loadtest.soak.sample", 60);
+
+    private static final String[] BRANCHES = {"CSE", "ECE", "EEE", "MECH", "CIVIL", "IT", "AIML", "BIO"};
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EventRequestRepository eventRequestRepository;
+
+    private final List<String> regNos = new ArrayList<>();
+    private final List<Long> facultyIds = new ArrayList<>();
+    private final AtomicInteger eventSequence = new AtomicInteger();
+
+    @BeforeAll
+    void seedRoster() {
+        long start = System.nanoTime();
+        int sections = FACULTY / BRANCHES.length + 1;
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < FACULTY; i++) {
+                FacultyMaster faculty = new FacultyMaster();
+                faculty.setFacultyName("Load Faculty " + i);
+                faculty.setFacultyEmail("faculty" + i + "@load.test");
+                faculty.setBranch(BRANCHES[i % BRANCHES.length]);
+                faculty.setSection(sectionName(i / BRANCHES.length));
+                entityManager.persist(faculty);
+                facultyIds.add(faculty.getId());
+            }
+            for (int i = 0; i < STUDENTS; i++) {
+                String regNo = String.format("LT%013d", i);
+                StudentMaster student = new StudentMaster(regNo, "Load Student " + i, 2021 + i % 4,
+                        BRANCHES[i % BRANCHES.length], sectionName((i / BRANCHES.length) % sections), "Department " + (i % BRANCHES.length));
+                entityManager.persist(student);
+                regNos.add(regNo);
+                if (i % 500 == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+        });
+        System.out.printf("Seeded %d students and %d faculty in %d ms%n",
+                STUDENTS, FACULTY, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    @Test
+    void replayMixedWorkflow() throws Exception {
+        String baseUrl = "http://localhost:" + port;
+        LoadReport report = new LoadReport();
+
+        // Role mix roughly matching fest season: mostly organizers, a handful of approvers and teachers
+        List<VirtualUser> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            String role = switch (i % 10) {
+                case 0 -> "ROLE_EVENT_COORDINATOR";
+                case 1 -> "ROLE_STUDENT_WELFARE";
+                case 2 -> "ROLE_HOD";
+                case 3 -> "ROLE_FACULTY";
+                default -> "ROLE_STUDENT_ORGANIZER";
+            };
+            users.add(new VirtualUser(baseUrl, "load" + i + "@load.test", role, report));
+        }
+
+        if (WARMUP_SECONDS > 0) {
+            drive(users, WARMUP_SECONDS);
+        }
+
+        report.start();
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        if (SOAK) {
+            sampler.scheduleAtFixedRate(
+                    report::sampleRetainedHeap, 0, SOAK_SAMPLE_SECONDS, TimeUnit.SECONDS);
+        }
+        drive(users, DURATION_SECONDS);
+        report.stop();
+        sampler.shutdownNow();
+
+        System.out.println(report.render());
+        assertTrue(report.recorder("autocomplete").count() > 0, "No autocomplete traffic was generated");
+    }
+
+    private void drive(List<VirtualUser> users, int seconds) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService pool = Executors.newFixedThreadPool(users.size());
+        List<Future<?>> futures = new ArrayList<>();
+        for (VirtualUser user : users) {
+            futures.add(pool.submit(() -> {
+                while (System.nanoTime() < deadline) {
+                    try {
+                        act(user);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    } catch (Exception e) {
+                        // Already counted as an error by the recorder; keep the user going
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+    }
+
+    private void act(VirtualUser user) throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        switch (user.role()) {
+            case "ROLE_EVENT_COORDINATOR" -> approveNext(user, RequestStatus.SUBMITTED);
+            case "ROLE_STUDENT_WELFARE" -> approveNext(user, RequestStatus.PENDING_WELFARE_APPROVAL);
+            case "ROLE_HOD" -> approveNext(user, RequestStatus.PENDING_HOD_APPROVAL);
+            case "ROLE_FACULTY" -> user.get("faculty-dashboard", "/faculty/dashboard");
+            default -> {
+                int dice = random.nextInt(100);
+                if (dice < 55) {
+                    String regNo = regNos.get(random.nextInt(regNos.size()));
+                    user.get("autocomplete", "/api/students/search?query=" + regNo.substring(0, 6 + random.nextInt(6)));
+                } else if (dice < 70) {
+                    user.get("student-lookup", "/api/students/" + regNos.get(random.nextInt(regNos.size())));
+                } else if (dice < 80) {
+                    user.postJson("student-batch", "/api/students/batch", randomRegNosJson(random, 50));
+                } else if (dice < 90) {
+                    user.get("my-requests", "/event-requests/my-requests");
+                } else {
+                    submit(user, random);
+                }
+            }
+        }
+    }
+
+    private void approveNext(VirtualUser user, RequestStatus pendingStatus) throws Exception {
+        user.get("approver-dashboard", "/approver/dashboard");
+        List<EventRequest> pending = eventRequestRepository.findByStatusAndIsHiddenFalse(pendingStatus);
+        if (!pending.isEmpty()) {
+            EventRequest next = pending.get(ThreadLocalRandom.current().nextInt(Math.min(pending.size(), 20)));
+            user.post("approve", "/approver/approve/" + next.getId(), Map.of());
+        }
+    }
+
+    private void submit(VirtualUser user, ThreadLocalRandom random) throws Exception {
+        // Spread events over a few years so overlap rejections stay rare
+        LocalDate start = LocalDate.now().plusDays(eventSequence.incrementAndGet() % 1000);
+        Map<String, String> form = new HashMap<>();
+        form.put("eventName", "Load Event " + eventSequence.get());
+        form.put("startDate", start.toString());
+        form.put("endDate", start.plusDays(random.nextInt(2)).toString());
+        form.put("fromTime", "09:00");
+        form.put("toTime", "17:00");
+        form.put("facultyCoordinator.id", String.valueOf(facultyIds.get(random.nextInt(facultyIds.size()))));
+        int participants = 1 + random.nextInt(10);
+        int first = random.nextInt(regNos.size() - participants);
+        for (int i = 0; i < participants; i++) {
+            form.put("participants[" + i + "].regNo", regNos.get(first + i));
+        }
+        user.post("submit", "/event-requests/submit", form);
+    }
+
+    private String randomRegNosJson(ThreadLocalRandom random, int size) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append('"').append(regNos.get(random.nextInt(regNos.size()))).append('"');
+        }
+        return json.append(']').toString();
+    }
+
+    private static String sectionName(int index) {
+        return String.valueOf((char) ('A' + index % 26)) + (index >= 26 ? index / 26 : "");
+    }
+}
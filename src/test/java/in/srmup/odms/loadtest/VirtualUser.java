@@ -0,0 +1,98 @@
+package in.srmup.odms.loadtest;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One logged-in browser session: its own cookie jar, a dev-login role and a
+ * CSRF token scraped from a rendered page. Every call is timed into the
+ * recorder of the endpoint class it belongs to.
+ */
+class VirtualUser {
+
+    private static final Pattern CSRF_META = Pattern.compile("<meta name=\"_csrf\" content=\"([^\"]+)\"");
+
+    private final String baseUrl;
+    private final String role;
+    private final LoadReport report;
+    private final HttpClient client;
+    private String csrfToken;
+
+    VirtualUser(String baseUrl, String username, String role, LoadReport report) throws IOException, InterruptedException {
+        this.baseUrl = baseUrl;
+        this.role = role;
+        this.report = report;
+        this.client = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+
+        // /dev-login is exempt from CSRF and establishes the session
+        post("login", "/dev-login", Map.of("username", username, "role", role));
+        HttpResponse<String> form = get("form", "/event-requests/new");
+        Matcher matcher = CSRF_META.matcher(form.body());
+        if (!matcher.find()) {
+            throw new IllegalStateException("No CSRF token on the request form for " + username);
+        }
+        csrfToken = matcher.group(1);
+    }
+
+    String role() {
+        return role;
+    }
+
+    HttpResponse<String> get(String endpoint, String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+        return send(endpoint, request);
+    }
+
+    HttpResponse<String> post(String endpoint, String path, Map<String, String> fields) throws IOException, InterruptedException {
+        StringJoiner body = new StringJoiner("&");
+        fields.forEach((name, value) -> body.add(encode(name) + "=" + encode(value)));
+        if (csrfToken != null) {
+            body.add("_csrf=" + encode(csrfToken));
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build();
+        return send(endpoint, request);
+    }
+
+    HttpResponse<String> postJson(String endpoint, String path, String json) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .header("X-CSRF-TOKEN", csrfToken)
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+        return send(endpoint, request);
+    }
+
+    private HttpResponse<String> send(String endpoint, HttpRequest request) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            report.recorder(endpoint).record((System.nanoTime() - start) / 1_000, response.statusCode() >= 400);
+            return response;
+        } catch (IOException e) {
+            report.recorder(endpoint).record((System.nanoTime() - start) / 1_000, true);
+            throw e;
+        }
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
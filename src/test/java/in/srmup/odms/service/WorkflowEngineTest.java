@@ -0,0 +1,141 @@
+package in.srmup.odms.service;
+
+import in.srmup.odms.model.ApprovalStage;
+import in.srmup.odms.model.EventRequest;
+import in.srmup.odms.model.RequestStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkflowEngineTest {
+
+    private static final String COORDINATOR = ApprovalStage.COORDINATOR.getRole();
+    private static final String WELFARE = ApprovalStage.WELFARE.getRole();
+    private static final String HOD = ApprovalStage.HOD.getRole();
+
+    @Test
+    void compileRejectsAStageListedTwice() {
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> WorkflowEngine.Workflow.compile("COORDINATOR,WELFARE,COORDINATOR"));
+        assertTrue(e.getMessage().contains("COORDINATOR appears twice"), e.getMessage());
+        assertThrows(IllegalStateException.class, () -> WorkflowEngine.Workflow.compile("COORDINATOR,HOD+HOD"));
+    }
+
+    // With three stages a second parallel step has to reuse a stage, which compile rejects first,
+    // so the one-parallel-step rule is also checked on the step masks directly
+    @Test
+    void compileRejectsTwoParallelSteps() {
+        assertThrows(IllegalStateException.class, () -> WorkflowEngine.Workflow.compile("COORDINATOR+WELFARE,WELFARE+HOD"));
+
+        int coordinatorAndWelfare = ApprovalStage.COORDINATOR.bit() | ApprovalStage.WELFARE.bit();
+        int welfareAndHod = ApprovalStage.WELFARE.bit() | ApprovalStage.HOD.bit();
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> new WorkflowEngine.Workflow(List.of(coordinatorAndWelfare, welfareAndHod), "test"));
+        assertTrue(e.getMessage().contains("only one parallel step"), e.getMessage());
+    }
+
+    @Test
+    void compileRejectsAnUnknownStage() {
+        assertThrows(IllegalStateException.class, () -> WorkflowEngine.Workflow.compile("COORDINATOR,DEAN"));
+    }
+
+    @Test
+    void parallelStepWaitsForBothApprovers() {
+        WorkflowEngine engine = engine("COORDINATOR,WELFARE+HOD");
+        EventRequest request = request(engine, "ECE");
+        assertEquals(RequestStatus.SUBMITTED, request.getStatus());
+
+        assertEquals(RequestStatus.PENDING_PARALLEL_APPROVAL, engine.nextStatus(request, COORDINATOR));
+        engine.recordApproval(request, COORDINATOR);
+        assertEquals(RequestStatus.PENDING_PARALLEL_APPROVAL, request.getStatus());
+        assertEquals(0, request.getCompletedStages());
+        assertNotNull(request.getStageEnteredAt());
+        assertEquals(List.of(ApprovalStage.WELFARE, ApprovalStage.HOD), engine.pendingStages(request));
+
+        // The first of the two keeps the request in the step and is only recorded
+        assertEquals(RequestStatus.PENDING_PARALLEL_APPROVAL, engine.nextStatus(request, HOD));
+        engine.recordApproval(request, HOD);
+        assertEquals(RequestStatus.PENDING_PARALLEL_APPROVAL, request.getStatus());
+        assertEquals(ApprovalStage.HOD.bit(), request.getCompletedStages());
+        assertEquals(List.of(ApprovalStage.WELFARE), engine.pendingStages(request));
+        assertFalse(engine.canApprove(request, HOD));
+        assertThrows(IllegalStateException.class, () -> engine.nextStatus(request, HOD));
+        assertThrows(IllegalStateException.class, () -> engine.nextStatus(request, COORDINATOR));
+
+        // The second completes the step
+        assertTrue(engine.canApprove(request, WELFARE));
+        assertEquals(RequestStatus.APPROVED, engine.nextStatus(request, WELFARE));
+        engine.recordApproval(request, WELFARE);
+        assertEquals(RequestStatus.APPROVED, request.getStatus());
+        assertEquals(0, request.getCompletedStages());
+        assertEquals(List.of(), engine.pendingStages(request));
+    }
+
+    @Test
+    void nextStatusRejectsRolesOutsideTheWorkflow() {
+        WorkflowEngine engine = engine("COORDINATOR,WELFARE+HOD");
+        EventRequest request = request(engine, null);
+        assertThrows(IllegalStateException.class, () -> engine.nextStatus(request, "ROLE_STUDENT"));
+        assertThrows(IllegalStateException.class, () -> engine.nextStatus(request, "ROLE_ADMIN"));
+    }
+
+    @Test
+    void adminCanRejectAtEveryStatus() {
+        WorkflowEngine engine = engine(WorkflowEngine.DEFAULT_CHAIN);
+        EventRequest request = request(engine, null);
+        for (RequestStatus status : RequestStatus.values()) {
+            request.setStatus(status);
+            assertTrue(engine.canReject(request, "ROLE_ADMIN"), "admin cannot reject in " + status);
+        }
+
+        request.setStatus(RequestStatus.SUBMITTED);
+        assertTrue(engine.canReject(request, COORDINATOR));
+        assertFalse(engine.canReject(request, HOD));
+        assertFalse(engine.canReject(request, "ROLE_STUDENT"));
+    }
+
+    @Test
+    void statusSetsCoverTheDepartmentOverride() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("app.workflow.default", WorkflowEngine.DEFAULT_CHAIN)
+                .withProperty("app.workflow.departments[CSE]", "COORDINATOR,WELFARE+HOD");
+        WorkflowEngine engine = new WorkflowEngine(environment);
+
+        assertEquals(EnumSet.of(RequestStatus.SUBMITTED), engine.actionableStatuses(COORDINATOR));
+        assertEquals(EnumSet.of(RequestStatus.PENDING_WELFARE_APPROVAL, RequestStatus.PENDING_PARALLEL_APPROVAL),
+                engine.actionableStatuses(WELFARE));
+        assertEquals(EnumSet.of(RequestStatus.PENDING_HOD_APPROVAL, RequestStatus.PENDING_PARALLEL_APPROVAL),
+                engine.actionableStatuses(HOD));
+        assertEquals(EnumSet.noneOf(RequestStatus.class), engine.actionableStatuses("ROLE_ADMIN"));
+
+        assertEquals(EnumSet.of(RequestStatus.PENDING_WELFARE_APPROVAL, RequestStatus.PENDING_HOD_APPROVAL,
+                RequestStatus.PENDING_PARALLEL_APPROVAL), engine.downstreamStatuses(COORDINATOR));
+        // After Welfare in the default chain, alongside the HOD in the override
+        assertEquals(EnumSet.of(RequestStatus.PENDING_HOD_APPROVAL, RequestStatus.PENDING_PARALLEL_APPROVAL),
+                engine.downstreamStatuses(WELFARE));
+        assertEquals(EnumSet.of(RequestStatus.PENDING_PARALLEL_APPROVAL), engine.downstreamStatuses(HOD));
+
+        // The override is matched on the department ignoring case and surrounding spaces
+        EventRequest cse = request(engine, " cse");
+        cse.setStatus(RequestStatus.PENDING_PARALLEL_APPROVAL);
+        assertEquals(List.of(ApprovalStage.WELFARE, ApprovalStage.HOD), engine.pendingStages(cse));
+        EventRequest other = request(engine, "ECE");
+        other.setStatus(RequestStatus.PENDING_PARALLEL_APPROVAL);
+        assertEquals(List.of(), engine.pendingStages(other));
+    }
+
+    private static WorkflowEngine engine(String chain) {
+        return new WorkflowEngine(new MockEnvironment().withProperty("app.workflow.default", chain));
+    }
+
+    private static EventRequest request(WorkflowEngine engine, String department) {
+        EventRequest request = new EventRequest();
+        request.setDepartment(department);
+        request.setStatus(engine.initialStatus(request));
+        return request;
+    }
+}
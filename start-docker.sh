@@ -6,6 +6,14 @@ set -e
 echo "🚀 Starting OD Management System with Docker..."
 echo ""
 
+# The docker/native profiles refuse to start without the calendar feed secret
+if [ -z "$APP_CALENDAR_TOKEN_SECRET" ]; then
+    echo "❌ APP_CALENDAR_TOKEN_SECRET is not set. It signs the faculty calendar feed URLs; set it to a"
+    echo "   long random value and keep it across restarts, e.g.:"
+    echo "   export APP_CALENDAR_TOKEN_SECRET=\$(openssl rand -base64 32)"
+    exit 1
+fi
+
 # Build the image
 echo "📦 Building Docker image..."
 docker build -t odms-app:latest -q .
@@ -22,6 +30,7 @@ docker run -d \
     --name odms-app \
     -p 80:80 \
     -e SPRING_PROFILES_ACTIVE=docker \
+    -e APP_CALENDAR_TOKEN_SECRET="$APP_CALENDAR_TOKEN_SECRET" \
     --restart unless-stopped \
     odms-app:latest
 
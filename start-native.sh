@@ -7,6 +7,14 @@ echo "🚀 Starting OD Management System (Native GraalVM)..."
 echo "   Expected startup: 2-5 seconds"
 echo ""
 
+# The docker/native profiles refuse to start without the calendar feed secret
+if [ -z "$APP_CALENDAR_TOKEN_SECRET" ]; then
+    echo "❌ APP_CALENDAR_TOKEN_SECRET is not set. It signs the faculty calendar feed URLs; set it to a"
+    echo "   long random value and keep it across restarts, e.g.:"
+    echo "   export APP_CALENDAR_TOKEN_SECRET=\$(openssl rand -base64 32)"
+    exit 1
+fi
+
 # Check if image exists
 if ! docker images | grep -q "odms-app.*native"; then
     echo "❌ Native image not found. Build it first with:"
@@ -26,6 +34,7 @@ docker run -d \
     --name odms-app-native \
     -p 80:80 \
     -e SPRING_PROFILES_ACTIVE=native \
+    -e APP_CALENDAR_TOKEN_SECRET="$APP_CALENDAR_TOKEN_SECRET" \
     --restart unless-stopped \
     odms-app:native
 